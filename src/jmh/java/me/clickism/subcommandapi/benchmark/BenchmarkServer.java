@@ -0,0 +1,136 @@
+package me.clickism.subcommandapi.benchmark;
+
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.Server;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A headless stub of the Bukkit server for benchmarks.
+ * <p>
+ * The server, senders and players are dynamic proxies that answer the few methods used by the library
+ * and return default values for everything else.
+ */
+public final class BenchmarkServer {
+    private static final Logger LOGGER = Logger.getLogger("Benchmark");
+    private static final List<Player> onlinePlayers = new ArrayList<>();
+    private static final Map<String, Player> playersByName = new HashMap<>();
+
+    static {
+        LOGGER.setLevel(Level.OFF);
+    }
+
+    private BenchmarkServer() {
+    }
+
+    /**
+     * Installs the stub server if no server is installed yet.
+     */
+    public static synchronized void install() {
+        if (Bukkit.getServer() != null) return;
+        Bukkit.setServer(proxy(Server.class, (method, args) -> switch (method.getName()) {
+            case "getLogger" -> LOGGER;
+            case "getOnlinePlayers" -> Collections.unmodifiableList(onlinePlayers);
+            case "getOfflinePlayers" -> onlinePlayers.toArray(new OfflinePlayer[0]);
+            case "getPlayer", "getPlayerExact" -> args[0] instanceof String name
+                    ? playersByName.get(name.toLowerCase(Locale.ROOT))
+                    : null;
+            default -> defaultValue(method);
+        }));
+    }
+
+    /**
+     * Replaces the online players of the stub server with the given number of players.
+     *
+     * @param count number of players
+     */
+    public static synchronized void setOnlinePlayers(int count) {
+        onlinePlayers.clear();
+        playersByName.clear();
+        for (int i = 0; i < count; i++) {
+            Player player = player("player" + i);
+            onlinePlayers.add(player);
+            playersByName.put(player.getName().toLowerCase(Locale.ROOT), player);
+        }
+    }
+
+    /**
+     * Creates a command sender that is an operator and ignores messages.
+     *
+     * @return command sender
+     */
+    public static CommandSender sender() {
+        return proxy(CommandSender.class, (method, args) -> switch (method.getName()) {
+            case "getName" -> "Benchmark";
+            case "isOp", "hasPermission" -> true;
+            default -> defaultValue(method);
+        });
+    }
+
+    /**
+     * Creates a command with the given label.
+     *
+     * @param label label of the command
+     * @return command
+     */
+    public static Command command(String label) {
+        return new Command(label) {
+            @Override
+            public boolean execute(@NotNull CommandSender sender, @NotNull String commandLabel, @NotNull String[] args) {
+                return false;
+            }
+        };
+    }
+
+    private static Player player(String name) {
+        UUID uuid = UUID.nameUUIDFromBytes(name.getBytes());
+        return proxy(Player.class, (method, args) -> switch (method.getName()) {
+            case "getName" -> name;
+            case "getUniqueId" -> uuid;
+            case "isOnline", "hasPlayedBefore" -> true;
+            default -> defaultValue(method);
+        });
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(Method method, Object[] args);
+    }
+
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) ->
+                switch (method.getName()) {
+                    case "equals" -> self == args[0];
+                    case "hashCode" -> System.identityHashCode(self);
+                    case "toString" -> type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(self));
+                    default -> handler.invoke(method, args);
+                });
+        return type.cast(proxy);
+    }
+
+    private static Object defaultValue(Method method) {
+        Class<?> type = method.getReturnType();
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0D;
+        if (type == float.class) return 0F;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        if (type == char.class) return (char) 0;
+        if (type == String.class) return "Benchmark";
+        if (type == List.class || type == Collection.class) return List.of();
+        if (type == Set.class) return Set.of();
+        if (type == Map.class) return Map.of();
+        return null;
+    }
+}
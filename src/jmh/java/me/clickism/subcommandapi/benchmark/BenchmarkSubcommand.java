@@ -0,0 +1,33 @@
+package me.clickism.subcommandapi.benchmark;
+
+import me.clickism.subcommandapi.argument.IntegerArgument;
+import me.clickism.subcommandapi.argument.StringArgument;
+import me.clickism.subcommandapi.command.*;
+import org.bukkit.command.CommandSender;
+
+/**
+ * A leaf subcommand with an integer and a string argument that does nothing.
+ */
+public class BenchmarkSubcommand extends Subcommand {
+    private final IntegerArgument amount = new IntegerArgument("amount", true);
+    private final StringArgument text = new StringArgument("text", false);
+
+    /**
+     * Creates a new benchmark subcommand.
+     *
+     * @param label label of the subcommand
+     */
+    public BenchmarkSubcommand(String label) {
+        super(label);
+        addArgument(amount);
+        addArgument(text);
+        addFlag("silent");
+    }
+
+    @Override
+    protected CommandResult execute(CommandStack trace, CommandSender sender, ArgumentHandler argHandler) throws CommandException {
+        argHandler.get(amount);
+        argHandler.getOrNull(text);
+        return CommandResult.success();
+    }
+}
@@ -0,0 +1,80 @@
+package me.clickism.subcommandapi.benchmark;
+
+import me.clickism.subcommandapi.command.ArgumentHandler;
+import me.clickism.subcommandapi.command.CommandManager;
+import me.clickism.subcommandapi.command.Subcommand;
+import me.clickism.subcommandapi.command.SubcommandGroup;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks command dispatch through nested subcommand groups, and argument parsing of a single subcommand.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DispatchBenchmark {
+    /**
+     * Number of subcommand groups from the root command to the leaf subcommand.
+     */
+    @Param({"1", "2", "4"})
+    public int depth;
+
+    /**
+     * Number of subcommands in each group.
+     */
+    @Param({"10", "300"})
+    public int fanout;
+
+    private CommandManager commandManager;
+    private CommandSender sender;
+    private Command command;
+    private String[] args;
+    private Subcommand leaf;
+    private String[] leafArgs;
+
+    @Setup
+    public void setup() {
+        BenchmarkServer.install();
+        sender = BenchmarkServer.sender();
+        command = BenchmarkServer.command("bench");
+        SubcommandGroup root = new SubcommandGroup("bench");
+        SubcommandGroup group = root;
+        List<String> path = new ArrayList<>();
+        for (int level = 1; level < depth; level++) {
+            SubcommandGroup next = null;
+            for (int i = 0; i < fanout; i++) {
+                next = new SubcommandGroup("group" + i);
+                group.addSubcommand(next);
+            }
+            path.add(next.getLabel());
+            group = next;
+        }
+        for (int i = 0; i < fanout; i++) {
+            group.addSubcommand(new BenchmarkSubcommand("leaf" + i));
+        }
+        String leafLabel = "leaf" + (fanout - 1);
+        leaf = group.getSubcommand(leafLabel);
+        leafArgs = new String[]{"42", "hello", "--silent"};
+        path.add(leafLabel);
+        path.addAll(List.of(leafArgs));
+        args = path.toArray(String[]::new);
+        commandManager = new CommandManager();
+        commandManager.registerCommand(root);
+    }
+
+    @Benchmark
+    public boolean onCommand() {
+        return commandManager.onCommand(sender, command, "bench", args);
+    }
+
+    @Benchmark
+    public ArgumentHandler argumentHandler() {
+        return new ArgumentHandler(sender, leaf, leafArgs);
+    }
+}
@@ -0,0 +1,58 @@
+package me.clickism.subcommandapi.benchmark;
+
+import me.clickism.subcommandapi.argument.MultipleSelectionArgument;
+import me.clickism.subcommandapi.util.Named;
+import me.clickism.subcommandapi.util.NamedCollection;
+import org.bukkit.command.CommandSender;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks parsing comma separated lists of a multiple selection argument.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MultipleArgumentBenchmark {
+    private static final int OPTIONS = 5000;
+
+    /**
+     * Number of options in the parsed list.
+     */
+    @Param({"1", "10", "100"})
+    public int listSize;
+
+    private MultipleSelectionArgument<Named> argument;
+    private CommandSender sender;
+    private String list;
+
+    @Setup
+    public void setup() {
+        BenchmarkServer.install();
+        sender = BenchmarkServer.sender();
+        List<String> names = new ArrayList<>(OPTIONS);
+        for (int i = 0; i < OPTIONS; i++) {
+            names.add("region" + i);
+        }
+        argument = new MultipleSelectionArgument<>("regions", true, NamedCollection.ofStrings(names));
+        StringJoiner joiner = new StringJoiner(",");
+        for (int i = 0; i < listSize; i++) {
+            joiner.add(names.get(i * (OPTIONS / listSize)));
+        }
+        list = joiner.toString();
+    }
+
+    @Benchmark
+    public List<Named> parse() {
+        return argument.parse(sender, list);
+    }
+
+    @Benchmark
+    public List<String> complete() {
+        return argument.getTabCompletion(sender, list + ",");
+    }
+}
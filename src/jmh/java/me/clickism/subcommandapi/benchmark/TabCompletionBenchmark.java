@@ -0,0 +1,93 @@
+package me.clickism.subcommandapi.benchmark;
+
+import me.clickism.subcommandapi.argument.Argument;
+import me.clickism.subcommandapi.argument.EnumArgument;
+import me.clickism.subcommandapi.argument.PlayersArgument;
+import me.clickism.subcommandapi.argument.SelectionArgument;
+import me.clickism.subcommandapi.command.*;
+import me.clickism.subcommandapi.util.Named;
+import me.clickism.subcommandapi.util.NamedCollection;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks tab completion of arguments with large candidate lists.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TabCompletionBenchmark {
+    /**
+     * Number of candidates of the selection and players arguments.
+     */
+    @Param({"1000", "50000"})
+    public int candidates;
+
+    /**
+     * The argument being completed.
+     */
+    @Param({"", "name12", "n1z"})
+    public String token;
+
+    private CommandTabCompleter tabCompleter;
+    private CommandSender sender;
+    private Command command;
+    private String[] selectionArgs;
+    private String[] playersArgs;
+    private String[] enumArgs;
+
+    @Setup
+    public void setup() {
+        BenchmarkServer.install();
+        BenchmarkServer.setOnlinePlayers(candidates);
+        sender = BenchmarkServer.sender();
+        command = BenchmarkServer.command("bench");
+        List<String> names = new ArrayList<>(candidates);
+        for (int i = 0; i < candidates; i++) {
+            names.add("name" + i);
+        }
+        NamedCollection<Named> options = NamedCollection.ofStrings(names);
+        SubcommandGroup root = new SubcommandGroup("bench")
+                .addSubcommand(new ArgumentSubcommand("select", new SelectionArgument<>("option", true, options)))
+                .addSubcommand(new ArgumentSubcommand("players", new PlayersArgument("players", true)))
+                .addSubcommand(new ArgumentSubcommand("unit", new EnumArgument<>("unit", true, TimeUnit.class)));
+        CommandManager commandManager = new CommandManager();
+        commandManager.registerCommand(root);
+        tabCompleter = new CommandTabCompleter(commandManager);
+        selectionArgs = new String[]{"select", token};
+        playersArgs = new String[]{"players", token.replace("name", "player")};
+        enumArgs = new String[]{"unit", token};
+    }
+
+    @Benchmark
+    public List<String> selection() {
+        return tabCompleter.onTabComplete(sender, command, "bench", selectionArgs);
+    }
+
+    @Benchmark
+    public List<String> players() {
+        return tabCompleter.onTabComplete(sender, command, "bench", playersArgs);
+    }
+
+    @Benchmark
+    public List<String> enumConstants() {
+        return tabCompleter.onTabComplete(sender, command, "bench", enumArgs);
+    }
+
+    private static class ArgumentSubcommand extends Subcommand {
+        private ArgumentSubcommand(String label, Argument<?> argument) {
+            super(label);
+            addArgument(argument);
+        }
+
+        @Override
+        protected CommandResult execute(CommandStack trace, CommandSender sender, ArgumentHandler argHandler) {
+            return CommandResult.success();
+        }
+    }
+}
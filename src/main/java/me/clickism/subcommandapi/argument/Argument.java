@@ -1,9 +1,12 @@
 package me.clickism.subcommandapi.argument;
 
 import me.clickism.subcommandapi.command.CommandException;
+import me.clickism.subcommandapi.command.DeferredCommandException;
 import org.bukkit.command.CommandSender;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents an argument for a command.
@@ -11,12 +14,30 @@ import java.util.List;
  * @param <T> the type of the argument
  */
 public abstract class Argument<T> {
+    private static final ClassValue<Boolean> CUSTOM_HINT = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("getHint").getDeclaringClass() != Argument.class;
+            } catch (NoSuchMethodException exception) {
+                return false;
+            }
+        }
+    };
+
     private static final String HINT_FORMAT = "<%s>";
     private static final String OPTIONAL_HINT_FORMAT = "[%s]";
 
+    /**
+     * Maximum number of completions returned by arguments with potentially large numbers of options.
+     */
+    protected static final int MAX_COMPLETIONS = 100;
+
     private final String name;
     private final String hint;
     private final boolean required;
+    private int slot = -1;
+    private final AtomicLong completionVersion = new AtomicLong();
 
     /**
      * Creates a new argument.
@@ -39,6 +60,48 @@ public abstract class Argument<T> {
      */
     public abstract List<String> getTabCompletion(CommandSender sender, String arg);
 
+    /**
+     * Whether the tab completion of the argument only depends on the typed argument and whether the sender
+     * is an operator, so it can be cached and shared between senders.
+     * <p>
+     * False by default. Arguments whose completion changes over time must call {@link #invalidateCompletion()}
+     * or override {@link #getCompletionVersion()} when it changes.
+     *
+     * @return true if the tab completion can be cached
+     */
+    public boolean isCompletionCacheable() {
+        return false;
+    }
+
+    /**
+     * Whether the completion candidates of the argument do not depend on the typed argument, so the
+     * completion of an argument that extends the previously completed argument can be narrowed down from
+     * the previous completion, instead of getting and filtering the candidates again.
+     * <p>
+     * False by default. Previous completions of other {@link #getCompletionVersion() versions} are not narrowed.
+     *
+     * @return true if the tab completion can be narrowed
+     */
+    public boolean isCompletionNarrowable() {
+        return false;
+    }
+
+    /**
+     * Gets the version of the tab completion of the argument. Cached completions of other versions are discarded.
+     *
+     * @return version of the tab completion
+     */
+    public long getCompletionVersion() {
+        return completionVersion.get();
+    }
+
+    /**
+     * Discards the cached tab completions of the argument. Call when the options of the argument change.
+     */
+    public void invalidateCompletion() {
+        completionVersion.incrementAndGet();
+    }
+
     /**
      * Parses the argument from an argument string.
      *
@@ -49,6 +112,58 @@ public abstract class Argument<T> {
      */
     public abstract T parse(CommandSender sender, String arg) throws CommandException;
 
+    /**
+     * Whether the argument is parsed asynchronously with {@link #parseAsync(CommandSender, String)},
+     * i.E: because it is looked up in a database.
+     * <p>
+     * The asynchronous arguments of a subcommand are parsed in parallel, and the subcommand is executed
+     * once all of them are parsed. False by default. Primitive arguments are always parsed synchronously.
+     *
+     * @return true if the argument is parsed asynchronously
+     */
+    public boolean isParsedAsync() {
+        return false;
+    }
+
+    /**
+     * Parses the argument from an argument string asynchronously. Called on the server thread, the returned
+     * future may complete on any thread.
+     * <p>
+     * By default, this parses the argument synchronously with {@link #parse(CommandSender, String)}.
+     *
+     * @param sender command sender
+     * @param arg    argument
+     * @return future that completes with the parsed argument, or completes exceptionally with a
+     * {@link CommandException} if the argument is invalid
+     */
+    public CompletableFuture<T> parseAsync(CommandSender sender, String arg) {
+        try {
+            return CompletableFuture.completedFuture(parse(sender, arg));
+        } catch (CommandException exception) {
+            return CompletableFuture.failedFuture(exception);
+        }
+    }
+
+    /**
+     * Parses the argument from an argument string without throwing if the argument is invalid.
+     * <p>
+     * By default, this catches the exception thrown by {@link #parse(CommandSender, String)}.
+     * Arguments that can validate their input cheaply override this to avoid throwing at all.
+     *
+     * @param sender command sender
+     * @param arg    argument
+     * @return the result of parsing the argument
+     */
+    public ParseResult<T> tryParse(CommandSender sender, String arg) {
+        try {
+            return ParseResult.success(parse(sender, arg));
+        } catch (DeferredCommandException exception) {
+            throw exception;
+        } catch (CommandException exception) {
+            return ParseResult.failure(exception.getMessage());
+        }
+    }
+
     /**
      * Gets the key of the argument.
      *
@@ -67,6 +182,39 @@ public abstract class Argument<T> {
         return hint;
     }
 
+    /**
+     * Whether the hint of the argument never changes, so the usage of the subcommand it belongs to can be cached.
+     * <p>
+     * True by default, unless {@link #getHint()} is overridden.
+     *
+     * @return true if the hint can be cached
+     */
+    public boolean isHintCacheable() {
+        return !CUSTOM_HINT.get(getClass());
+    }
+
+    /**
+     * Gets the slot of the argument, its index in the arguments of the subcommand it was first added to.
+     * The argument handler stores the parsed value of the argument at this index.
+     *
+     * @return the slot of the argument, or -1 if it was not added to a subcommand
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Assigns the slot of the argument if it was not assigned yet.
+     * Called when the argument is added to a subcommand.
+     *
+     * @param slot index of the argument in the arguments of the subcommand
+     */
+    public void assignSlot(int slot) {
+        if (this.slot < 0) {
+            this.slot = slot;
+        }
+    }
+
     /**
      * Whether the argument is required.
      *
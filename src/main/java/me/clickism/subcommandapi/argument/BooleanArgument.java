@@ -1,11 +1,15 @@
 package me.clickism.subcommandapi.argument;
 
+import me.clickism.subcommandapi.command.CommandException;
+import me.clickism.subcommandapi.command.InvalidInputException;
+import org.bukkit.command.CommandSender;
+
 import java.util.List;
 
 /**
  * Represents an argument that is a boolean.
  */
-public class BooleanArgument extends ValueArgument<Boolean> {
+public class BooleanArgument extends ValueArgument<Boolean> implements PrimitiveArgument<Boolean> {
     private static final List<String> BOOLEAN_VALUES = List.of("true", "false");
 
     /**
@@ -17,4 +21,40 @@ public class BooleanArgument extends ValueArgument<Boolean> {
     public BooleanArgument(String name, boolean required) {
         super(name, required, Boolean::parseBoolean, BOOLEAN_VALUES);
     }
+
+    /**
+     * Parses the argument to a boolean without boxing.
+     *
+     * @param sender command sender
+     * @param arg    argument
+     * @return the parsed boolean
+     * @throws CommandException if the argument is not true or false
+     */
+    public boolean parseBoolean(CommandSender sender, String arg) throws CommandException {
+        if (arg.equalsIgnoreCase("true")) return true;
+        if (arg.equalsIgnoreCase("false")) return false;
+        throw new InvalidInputException("Invalid value: &l" + arg);
+    }
+
+    @Override
+    public Boolean parse(CommandSender sender, String arg) throws CommandException {
+        return parseBoolean(sender, arg);
+    }
+
+    @Override
+    public ParseResult<Boolean> tryParse(CommandSender sender, String arg) {
+        if (arg.equalsIgnoreCase("true")) return ParseResult.success(true);
+        if (arg.equalsIgnoreCase("false")) return ParseResult.success(false);
+        return ParseResult.failure("Invalid value: &l" + arg);
+    }
+
+    @Override
+    public long parseRaw(CommandSender sender, String arg) throws CommandException {
+        return parseBoolean(sender, arg) ? 1 : 0;
+    }
+
+    @Override
+    public Boolean box(long raw) {
+        return raw != 0;
+    }
 }
@@ -1,9 +1,14 @@
 package me.clickism.subcommandapi.argument;
 
+import me.clickism.subcommandapi.command.CommandException;
+import me.clickism.subcommandapi.command.InvalidInputException;
+import me.clickism.subcommandapi.util.Numbers;
+import org.bukkit.command.CommandSender;
+
 /**
  * Represents an argument that is a double.
  */
-public class DoubleArgument extends ValueArgument<Double> {
+public class DoubleArgument extends ValueArgument<Double> implements PrimitiveArgument<Double> {
     /**
      * Create a new double argument with the given name and required status.
      *
@@ -13,4 +18,55 @@ public class DoubleArgument extends ValueArgument<Double> {
     public DoubleArgument(String name, boolean required) {
         super(name, required, Double::parseDouble);
     }
+
+    /**
+     * Parses the argument to a double without boxing.
+     *
+     * @param sender command sender
+     * @param arg    argument
+     * @return the parsed double
+     * @throws CommandException if the argument is not a double
+     */
+    public double parseDouble(CommandSender sender, String arg) throws CommandException {
+        if (Numbers.isDecimal(arg)) {
+            return Double.parseDouble(arg);
+        }
+        if (isSpecial(arg)) {
+            try {
+                return Double.parseDouble(arg);
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        throw new InvalidInputException("Invalid value: &l" + arg);
+    }
+
+    @Override
+    public Double parse(CommandSender sender, String arg) throws CommandException {
+        return parseDouble(sender, arg);
+    }
+
+    @Override
+    public ParseResult<Double> tryParse(CommandSender sender, String arg) {
+        if (Numbers.isDecimal(arg)) {
+            return ParseResult.success(Double.parseDouble(arg));
+        }
+        return super.tryParse(sender, arg);
+    }
+
+    /**
+     * Whether the argument may be a double that is not a decimal number, i.E: NaN, Infinity or a hexadecimal number.
+     */
+    private static boolean isSpecial(String arg) {
+        return arg.contains("NaN") || arg.contains("Infinity") || arg.contains("0x") || arg.contains("0X");
+    }
+
+    @Override
+    public long parseRaw(CommandSender sender, String arg) throws CommandException {
+        return Double.doubleToRawLongBits(parseDouble(sender, arg));
+    }
+
+    @Override
+    public Double box(long raw) {
+        return Double.longBitsToDouble(raw);
+    }
 }
@@ -1,11 +1,10 @@
 package me.clickism.subcommandapi.argument;
 
 import me.clickism.subcommandapi.command.CommandException;
+import me.clickism.subcommandapi.util.ValueDomain;
 import org.bukkit.command.CommandSender;
 
-import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Represents an argument that is an enum.
@@ -13,7 +12,8 @@ import java.util.stream.Collectors;
  * @param <E> the type of the enum
  */
 public class EnumArgument<E extends Enum<E>> extends Argument<E> {
-    private final Class<E> enumClass;
+    private final ValueDomain<E> domain;
+    private final String invalidMessageSuffix;
 
     /**
      * Create a new enum argument with the given name, required status, and enum class.
@@ -24,25 +24,36 @@ public class EnumArgument<E extends Enum<E>> extends Argument<E> {
      */
     public EnumArgument(String name, boolean required, Class<E> enumClass) {
         super(name, required);
-        this.enumClass = enumClass;
+        this.domain = ValueDomain.ofEnum(enumClass);
+        this.invalidMessageSuffix = "&c.\n Valid values: &l" + domain.getJoinedNames();
     }
 
     @Override
     public List<String> getTabCompletion(CommandSender sender, String arg) {
-        return Arrays.stream(enumClass.getEnumConstants())
-                .map(e -> e.name().toLowerCase())
-                .toList();
+        return domain.getCompletion();
+    }
+
+    @Override
+    public boolean isCompletionCacheable() {
+        return true;
+    }
+
+    @Override
+    public boolean isCompletionNarrowable() {
+        return true;
     }
 
     @Override
     public E parse(CommandSender sender, String arg) throws CommandException {
-        try {
-            return E.valueOf(enumClass, arg.toUpperCase());
-        } catch (IllegalArgumentException exception) {
-            throw new CommandException("Invalid value: &l" + arg + "&c.\n Valid values: &l" +
-                    Arrays.stream(enumClass.getEnumConstants())
-                            .map(e -> e.name().toLowerCase())
-                            .collect(Collectors.joining(", ")));
+        return tryParse(sender, arg).getOrThrow();
+    }
+
+    @Override
+    public ParseResult<E> tryParse(CommandSender sender, String arg) {
+        E constant = domain.get(arg);
+        if (constant == null) {
+            return ParseResult.failure("Invalid value: &l" + arg + invalidMessageSuffix);
         }
+        return ParseResult.success(constant);
     }
 }
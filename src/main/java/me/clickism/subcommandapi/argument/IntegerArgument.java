@@ -1,9 +1,14 @@
 package me.clickism.subcommandapi.argument;
 
+import me.clickism.subcommandapi.command.CommandException;
+import me.clickism.subcommandapi.command.InvalidInputException;
+import me.clickism.subcommandapi.util.Numbers;
+import org.bukkit.command.CommandSender;
+
 /**
  * Represents an argument that is an integer.
  */
-public class IntegerArgument extends ValueArgument<Integer> {
+public class IntegerArgument extends ValueArgument<Integer> implements PrimitiveArgument<Integer> {
     /**
      * Create a new integer argument with the given name and required status.
      *
@@ -13,4 +18,42 @@ public class IntegerArgument extends ValueArgument<Integer> {
     public IntegerArgument(String name, boolean required) {
         super(name, required, Integer::parseInt);
     }
+
+    /**
+     * Parses the argument to an integer without boxing.
+     *
+     * @param sender command sender
+     * @param arg    argument
+     * @return the parsed integer
+     * @throws CommandException if the argument is not an integer
+     */
+    public int parseInt(CommandSender sender, String arg) throws CommandException {
+        if (!Numbers.isInt(arg)) {
+            throw new InvalidInputException("Invalid value: &l" + arg);
+        }
+        return Integer.parseInt(arg);
+    }
+
+    @Override
+    public Integer parse(CommandSender sender, String arg) throws CommandException {
+        return parseInt(sender, arg);
+    }
+
+    @Override
+    public ParseResult<Integer> tryParse(CommandSender sender, String arg) {
+        if (!Numbers.isInt(arg)) {
+            return ParseResult.failure("Invalid value: &l" + arg);
+        }
+        return ParseResult.success(Integer.parseInt(arg));
+    }
+
+    @Override
+    public long parseRaw(CommandSender sender, String arg) throws CommandException {
+        return parseInt(sender, arg);
+    }
+
+    @Override
+    public Integer box(long raw) {
+        return (int) raw;
+    }
 }
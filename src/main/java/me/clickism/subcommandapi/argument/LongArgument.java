@@ -1,9 +1,14 @@
 package me.clickism.subcommandapi.argument;
 
+import me.clickism.subcommandapi.command.CommandException;
+import me.clickism.subcommandapi.command.InvalidInputException;
+import me.clickism.subcommandapi.util.Numbers;
+import org.bukkit.command.CommandSender;
+
 /**
  * Represents an argument that is a long.
  */
-public class LongArgument extends ValueArgument<Long> {
+public class LongArgument extends ValueArgument<Long> implements PrimitiveArgument<Long> {
     /**
      * Create a new long argument with the given name and required status.
      *
@@ -13,4 +18,42 @@ public class LongArgument extends ValueArgument<Long> {
     public LongArgument(String name, boolean required) {
         super(name, required, Long::parseLong);
     }
+
+    /**
+     * Parses the argument to a long without boxing.
+     *
+     * @param sender command sender
+     * @param arg    argument
+     * @return the parsed long
+     * @throws CommandException if the argument is not a long
+     */
+    public long parseLong(CommandSender sender, String arg) throws CommandException {
+        if (!Numbers.isLong(arg)) {
+            throw new InvalidInputException("Invalid value: &l" + arg);
+        }
+        return Long.parseLong(arg);
+    }
+
+    @Override
+    public Long parse(CommandSender sender, String arg) throws CommandException {
+        return parseLong(sender, arg);
+    }
+
+    @Override
+    public ParseResult<Long> tryParse(CommandSender sender, String arg) {
+        if (!Numbers.isLong(arg)) {
+            return ParseResult.failure("Invalid value: &l" + arg);
+        }
+        return ParseResult.success(Long.parseLong(arg));
+    }
+
+    @Override
+    public long parseRaw(CommandSender sender, String arg) throws CommandException {
+        return parseLong(sender, arg);
+    }
+
+    @Override
+    public Long box(long raw) {
+        return raw;
+    }
 }
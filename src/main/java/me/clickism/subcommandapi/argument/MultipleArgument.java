@@ -1,13 +1,13 @@
 package me.clickism.subcommandapi.argument;
 
 import me.clickism.subcommandapi.command.CommandException;
+import me.clickism.subcommandapi.command.InvalidInputException;
+import me.clickism.subcommandapi.util.CompletionIndex;
 import org.bukkit.command.CommandSender;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 /**
  * An argument that takes multiple options.
@@ -15,6 +15,21 @@ import java.util.stream.Collectors;
  * @param <T> the type of options
  */
 public abstract class MultipleArgument<T> extends Argument<List<T>> {
+    /**
+     * Whether {@link #getDefaultTabCompletion()} is overridden below the last override of
+     * {@link #getDefaultTabCompletion(String)}, i.E: by a subclass written before the latter existed.
+     */
+    private static final ClassValue<Boolean> LEGACY_DEFAULT_COMPLETION = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> current = type; current != MultipleArgument.class; current = current.getSuperclass()) {
+                if (declaresDefaultTabCompletion(current, String.class)) return false;
+                if (declaresDefaultTabCompletion(current)) return true;
+            }
+            return false;
+        }
+    };
+
     private final Function<T, String> nameFunction;
 
     /**
@@ -29,49 +44,142 @@ public abstract class MultipleArgument<T> extends Argument<List<T>> {
         this.nameFunction = nameFunction;
     }
 
+    /**
+     * Gets the tab completion for the argument.
+     * <p>
+     * Only the last option of a list, i.E: {@code b} in {@code a,b}, is completed. Options that were
+     * already chosen are not completed again, and at most {@link #MAX_COMPLETIONS} options are completed.
+     *
+     * @param sender command sender
+     * @param arg    argument
+     * @return tab completion
+     */
     @Override
     public List<String> getTabCompletion(CommandSender sender, String arg) {
-        if (arg.startsWith("!")) {
-            return getOptions().stream()
-                    .map(o -> "!" + nameFunction.apply(o))
-                    .toList();
+        boolean exclusion = arg.startsWith("!");
+        int separator = arg.lastIndexOf(',');
+        if (!exclusion && separator < 0) {
+            return LEGACY_DEFAULT_COMPLETION.get(getClass()) ? getDefaultTabCompletion() : getDefaultTabCompletion(arg);
         }
-        if (arg.endsWith(",")) {
-            return getOptions().stream()
-                    .map(o -> arg + nameFunction.apply(o))
-                    .toList();
+        int start = exclusion ? 1 : 0;
+        int segmentStart = Math.max(start, separator + 1);
+        if (exclusion && segmentStart < arg.length() && arg.charAt(segmentStart) == '!') {
+            segmentStart++; // !a,!b
         }
-        String[] split = arg.split(",");
-        if (split.length > 1) {
-            return getSplitTabCompletion(split, arg);
+        Set<String> chosen = new HashSet<>();
+        if (separator > start) {
+            for (String term : splitTerms(arg.substring(start, separator))) {
+                chosen.add((term.startsWith("!") ? term.substring(1) : term).toLowerCase(Locale.ROOT));
+            }
         }
-        return getDefaultTabCompletion();
+        return completeSegment(arg.substring(0, segmentStart), arg.substring(segmentStart), chosen);
     }
 
     /**
      * Used for default completion. Returns a modifiable list. Override for custom behavior.
+     * <p>
+     * Overrides of this method are used instead of {@link #getDefaultTabCompletion(String)},
+     * unless a subclass overrides the latter as well.
      *
      * @return a list of default completions
      */
     protected List<String> getDefaultTabCompletion() {
-        List<String> list = getOptions().stream()
-                .map(nameFunction)
-                .collect(Collectors.toCollection(ArrayList::new));
+        List<String> list = completeSegment("", "", Set.of());
         list.add("@a");
         list.add("!");
         return list;
     }
 
-    private List<String> getSplitTabCompletion(String[] split, String arg) {
-        String prefix = arg.substring(0, arg.length() - split[split.length - 1].length());
-        return getOptions().stream()
-                .map(o -> prefix + nameFunction.apply(o))
-                .toList();
+    /**
+     * Used for default completion of the given argument. Returns a modifiable list. Override for custom behavior.
+     * <p>
+     * By default, only completes the options that match the argument. Not used if a subclass of the class that
+     * last overrides this method overrides {@link #getDefaultTabCompletion()}.
+     *
+     * @param arg the argument typed so far
+     * @return a list of default completions
+     */
+    protected List<String> getDefaultTabCompletion(String arg) {
+        List<String> list = completeSegment("", arg, Set.of());
+        list.add("@a");
+        list.add("!");
+        return list;
+    }
+
+    private static boolean declaresDefaultTabCompletion(Class<?> type, Class<?>... parameterTypes) {
+        try {
+            type.getDeclaredMethod("getDefaultTabCompletion", parameterTypes);
+            return true;
+        } catch (NoSuchMethodException exception) {
+            return false;
+        }
+    }
+
+    /**
+     * Completes the names of the options that start with the segment, or if there are none,
+     * that contain the segment as a subsequence, excluding the chosen options.
+     * <p>
+     * If more than {@link #MAX_COMPLETIONS} options match, the first ones ordered by name ignoring case
+     * are completed, so the completions do not depend on the order of the options.
+     *
+     * @param prefix  the part of the argument before the segment, prepended to each completion
+     * @param segment the segment to complete
+     * @param chosen  lower-cased names of the options that were already chosen
+     * @return modifiable list of at most {@link #MAX_COMPLETIONS} completions
+     */
+    private List<String> completeSegment(String prefix, String segment, Set<String> chosen) {
+        List<String> names = getOptionNames(segment);
+        List<String> list = new ArrayList<>(Math.min(names.size(), 16));
+        for (String name : names) {
+            if (name == null || !name.regionMatches(true, 0, segment, 0, segment.length())) continue;
+            if (chosen.isEmpty() || !chosen.contains(name.toLowerCase(Locale.ROOT))) {
+                list.add(prefix + name);
+            }
+        }
+        if (!list.isEmpty() || segment.isEmpty()) return limit(list);
+        String key = segment.toLowerCase(Locale.ROOT);
+        for (String name : names) {
+            if (name == null) continue;
+            String lowerName = name.toLowerCase(Locale.ROOT);
+            if (CompletionIndex.isSubsequence(lowerName, key) && !chosen.contains(lowerName)) {
+                list.add(prefix + name);
+            }
+        }
+        return limit(list);
+    }
+
+    /**
+     * Limits the completions to the first {@link #MAX_COMPLETIONS} ones ordered ignoring case,
+     * if there are more.
+     */
+    private static List<String> limit(List<String> list) {
+        if (list.size() <= MAX_COMPLETIONS) return list;
+        list.sort(String.CASE_INSENSITIVE_ORDER);
+        return new ArrayList<>(list.subList(0, MAX_COMPLETIONS));
+    }
+
+    /**
+     * Gets the names of the options to complete for the given prefix.
+     * <p>
+     * The returned names are filtered further by the tab completer, so implementations may return
+     * names that do not start with the prefix. Override to avoid getting all options for every completion.
+     *
+     * @param prefix the prefix of the option typed so far
+     * @return names of the options
+     */
+    protected List<String> getOptionNames(String prefix) {
+        List<T> options = getOptionsView();
+        List<String> names = new ArrayList<>(options.size());
+        for (T option : options) {
+            names.add(nameFunction.apply(option));
+        }
+        return names;
     }
 
     @Override
     public List<T> parse(CommandSender sender, String arg) throws CommandException {
         if (arg.equalsIgnoreCase("@a")) {
+            // Options are copied, the view may be live and is not owned by the command
             return getOptions();
         }
         if (arg.startsWith("!")) {
@@ -87,6 +195,19 @@ public abstract class MultipleArgument<T> extends Argument<List<T>> {
      */
     public abstract List<T> getOptions();
 
+    /**
+     * Gets all options for the {@code @a} selector and for exclusions.
+     * <p>
+     * By default, returns {@link #getOptions()}. Override to return an unmodifiable view of the options
+     * instead of copying them. The view is only read while parsing exclusions, the {@code @a} selector
+     * returns {@link #getOptions()}.
+     *
+     * @return a list of options, may be unmodifiable
+     */
+    protected List<T> getOptionsView() {
+        return getOptions();
+    }
+
     /**
      * Parses an option from a string.
      * @param sender the sender
@@ -96,17 +217,81 @@ public abstract class MultipleArgument<T> extends Argument<List<T>> {
      */
     public abstract T parseOption(CommandSender sender, String arg) throws CommandException;
 
+    /**
+     * Parses all options except the excluded ones, i.E: {@code !a,b} or {@code !a,!b}.
+     */
     private List<T> parseFiltered(CommandSender sender, String filterArg) throws CommandException {
-        T filter = parseOption(sender, filterArg);
-        return getOptions().stream()
-                .filter(option -> !option.equals(filter))
-                .toList();
+        List<String> terms = splitTerms(filterArg);
+        if (terms.isEmpty()) {
+            throw new InvalidInputException("Invalid " + getName() + ": &l!" + filterArg);
+        }
+        Set<T> excluded = new HashSet<>(terms.size() * 2);
+        for (String term : terms) {
+            excluded.add(parseOption(sender, term.startsWith("!") ? term.substring(1) : term));
+        }
+        List<T> options = getOptionsView();
+        List<T> list = new ArrayList<>(Math.max(options.size() - excluded.size(), 0));
+        for (T option : options) {
+            if (!excluded.contains(option)) {
+                list.add(option);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Splits the argument at commas without using regular expressions. Empty terms are skipped.
+     */
+    static List<String> splitTerms(String arg) {
+        List<String> terms = new ArrayList<>();
+        int start = 0;
+        while (start <= arg.length()) {
+            int end = arg.indexOf(',', start);
+            if (end < 0) end = arg.length();
+            if (end > start) {
+                terms.add(arg.substring(start, end));
+            }
+            start = end + 1;
+        }
+        return terms;
+    }
+
+    /**
+     * Selects the given number of distinct random elements of the given collection, in random order.
+     * <p>
+     * Copies the collection into an array once and performs a partial Fisher-Yates shuffle,
+     * so only as many elements as selected are swapped.
+     *
+     * @param collection collection to select from
+     * @param count      number of elements to select, at most the size of the collection
+     * @param <E>        type of the elements
+     * @return modifiable list of the selected elements
+     */
+    @SuppressWarnings("unchecked")
+    protected static <E> List<E> selectRandom(Collection<? extends E> collection, int count) {
+        Object[] array = collection.toArray();
+        count = Math.min(count, array.length);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<E> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(array.length - i);
+            Object selected = array[j];
+            array[j] = array[i];
+            array[i] = selected;
+            list.add((E) selected);
+        }
+        return list;
     }
 
     private List<T> parseSplit(CommandSender sender, String arg) throws CommandException {
-        String[] split = arg.split(",");
-        return Arrays.stream(split)
-                .map(option -> parseOption(sender, option))
-                .toList();
+        List<String> terms = splitTerms(arg);
+        if (terms.isEmpty()) {
+            throw new InvalidInputException("Invalid " + getName() + ": &l" + arg);
+        }
+        List<T> list = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            list.add(parseOption(sender, term));
+        }
+        return list;
     }
 }
@@ -1,6 +1,7 @@
 package me.clickism.subcommandapi.argument;
 
 import me.clickism.subcommandapi.command.CommandException;
+import me.clickism.subcommandapi.command.InvalidInputException;
 import me.clickism.subcommandapi.util.Named;
 import me.clickism.subcommandapi.util.NamedCollection;
 import org.bukkit.command.CommandSender;
@@ -33,11 +34,23 @@ public class MultipleSelectionArgument<T extends Named> extends MultipleArgument
         return new ArrayList<>(options);
     }
 
+    @Override
+    protected List<String> getOptionNames(String prefix) {
+        List<String> names = options.getNamesByPrefix(prefix, MAX_COMPLETIONS);
+        if (!names.isEmpty()) return names;
+        // Fall back to all names, to match the prefix as a subsequence
+        names = new ArrayList<>(options.size());
+        for (T option : options) {
+            names.add(option.getName());
+        }
+        return names;
+    }
+
     @Override
     public T parseOption(CommandSender sender, String arg) throws CommandException {
         T t = options.get(arg);
         if (t == null) {
-            throw new CommandException("Invalid selection: &l" + arg);
+            throw new InvalidInputException("Invalid selection: &l" + arg);
         }
         return t;
     }
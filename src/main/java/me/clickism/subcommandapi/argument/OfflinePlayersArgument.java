@@ -1,6 +1,8 @@
 package me.clickism.subcommandapi.argument;
 
 import me.clickism.subcommandapi.command.CommandException;
+import me.clickism.subcommandapi.command.InvalidInputException;
+import me.clickism.subcommandapi.util.OfflinePlayerIndex;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.command.CommandSender;
@@ -8,9 +10,12 @@ import org.bukkit.command.CommandSender;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * An argument that takes multiple offline players.
+ * <p>
+ * If the {@link OfflinePlayerIndex} is initialized, players are completed and resolved through it.
  */
 public class OfflinePlayersArgument extends MultipleArgument<OfflinePlayer> {
 
@@ -23,15 +28,30 @@ public class OfflinePlayersArgument extends MultipleArgument<OfflinePlayer> {
     public OfflinePlayersArgument(String name, boolean required) {
         super(name, required, OfflinePlayer::getName);
     }
-    
+
     @Override
     protected List<String> getDefaultTabCompletion() {
-        List<String> list = super.getDefaultTabCompletion();
+        return addSelectors(super.getDefaultTabCompletion());
+    }
+
+    @Override
+    protected List<String> getDefaultTabCompletion(String arg) {
+        return addSelectors(super.getDefaultTabCompletion(arg));
+    }
+
+    private static List<String> addSelectors(List<String> list) {
         list.add("@p");
         list.add("@s");
         return list;
     }
 
+    @Override
+    protected List<String> getOptionNames(String prefix) {
+        OfflinePlayerIndex index = OfflinePlayerIndex.getInstance();
+        if (index == null) return super.getOptionNames(prefix);
+        return index.getNames(prefix, MAX_COMPLETIONS);
+    }
+
     @Override
     public List<OfflinePlayer> getOptions() {
         return new ArrayList<>(Arrays.asList(Bukkit.getOfflinePlayers()));
@@ -41,14 +61,22 @@ public class OfflinePlayersArgument extends MultipleArgument<OfflinePlayer> {
     public OfflinePlayer parseOption(CommandSender sender, String arg) throws CommandException {
         if (arg.equalsIgnoreCase("@p") || arg.equalsIgnoreCase("@s")) {
             if (!(sender instanceof OfflinePlayer player)) {
-                throw new CommandException("Only players can use this selector.");
+                throw new InvalidInputException("Only players can use this selector.");
             }
             return player;
         }
+        OfflinePlayerIndex index = OfflinePlayerIndex.getInstance();
+        if (index != null) {
+            UUID uuid = index.getUniqueId(arg);
+            if (uuid == null) {
+                throw new InvalidInputException("This player has not played before: &l" + arg);
+            }
+            return Bukkit.getOfflinePlayer(uuid);
+        }
         @SuppressWarnings("deprecation")
         OfflinePlayer player = Bukkit.getOfflinePlayer(arg);
         if (!player.hasPlayedBefore()) {
-            throw new CommandException("This player has not played before: &l" + arg);
+            throw new InvalidInputException("This player has not played before: &l" + arg);
         }
         return player;
     }
@@ -0,0 +1,84 @@
+package me.clickism.subcommandapi.argument;
+
+import me.clickism.subcommandapi.command.CommandException;
+import me.clickism.subcommandapi.command.InvalidInputException;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The result of parsing an argument without throwing, either a parsed value or an error message.
+ *
+ * @param <T> the type of the parsed value
+ */
+public final class ParseResult<T> {
+    private final T value;
+    private final String error;
+
+    private ParseResult(T value, String error) {
+        this.value = value;
+        this.error = error;
+    }
+
+    /**
+     * Creates a successful result with the given value.
+     *
+     * @param value the parsed value
+     * @param <T>   the type of the parsed value
+     * @return successful result
+     */
+    public static <T> ParseResult<T> success(T value) {
+        return new ParseResult<>(value, null);
+    }
+
+    /**
+     * Creates a failed result with the given error message.
+     *
+     * @param error the error message
+     * @param <T>   the type of the parsed value
+     * @return failed result
+     */
+    public static <T> ParseResult<T> failure(String error) {
+        return new ParseResult<>(null, error);
+    }
+
+    /**
+     * Whether the argument was parsed successfully.
+     *
+     * @return true if the argument was parsed successfully
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * Gets the parsed value.
+     *
+     * @return the parsed value, or null if parsing failed
+     */
+    @Nullable
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * Gets the error message.
+     *
+     * @return the error message, or null if parsing succeeded
+     */
+    @Nullable
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Gets the parsed value, or throws the error if parsing failed.
+     *
+     * @return the parsed value
+     * @throws CommandException if parsing failed
+     */
+    public T getOrThrow() throws CommandException {
+        if (error != null) {
+            throw new InvalidInputException(error);
+        }
+        return value;
+    }
+}
@@ -1,11 +1,15 @@
 package me.clickism.subcommandapi.argument;
 
 import me.clickism.subcommandapi.command.CommandException;
+import me.clickism.subcommandapi.command.InvalidInputException;
+import me.clickism.subcommandapi.util.Numbers;
 import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -25,7 +29,15 @@ public class PlayersArgument extends MultipleArgument<Player> {
 
     @Override
     protected List<String> getDefaultTabCompletion() {
-        List<String> list = super.getDefaultTabCompletion();
+        return addSelectors(super.getDefaultTabCompletion());
+    }
+
+    @Override
+    protected List<String> getDefaultTabCompletion(String arg) {
+        return addSelectors(super.getDefaultTabCompletion(arg));
+    }
+
+    private static List<String> addSelectors(List<String> list) {
         list.add("@r");
         list.add("@r<count>");
         list.add("@p");
@@ -39,17 +51,17 @@ public class PlayersArgument extends MultipleArgument<Player> {
             if (sender instanceof Player player) {
                 return List.of(player);
             }
-            throw new CommandException("Only players can use this selector.");
+            throw new InvalidInputException("Only players can use this selector.");
         }
         if (arg.startsWith("@r")) {
             int count;
             if (arg.length() > 2) {
-                try {
-                    count = Integer.parseInt(arg.substring(2));
-                } catch (NumberFormatException e) {
-                    throw new CommandException("Invalid random player selector: &l" + arg +
-                                               ". Expected: &l@r<count>.&c i.E: &l@r5");
+                String countString = arg.substring(2);
+                if (!Numbers.isInt(countString) || Integer.parseInt(countString) < 1) {
+                    throw new InvalidInputException("Invalid random player selector: &l" + arg +
+                                                    ". Expected: &l@r<count>.&c i.E: &l@r5");
                 }
+                count = Integer.parseInt(countString);
             } else {
                 count = 1;
             }
@@ -63,26 +75,34 @@ public class PlayersArgument extends MultipleArgument<Player> {
         return new ArrayList<>(Bukkit.getOnlinePlayers());
     }
 
+    /**
+     * Gets an unmodifiable view of the online players, without copying them if possible.
+     *
+     * @return unmodifiable list of the online players
+     */
+    @Override
+    protected List<Player> getOptionsView() {
+        Collection<? extends Player> players = Bukkit.getOnlinePlayers();
+        if (players instanceof List<? extends Player> list) {
+            return Collections.unmodifiableList(list);
+        }
+        return List.copyOf(players);
+    }
+
     @Override
     public Player parseOption(CommandSender sender, String arg) throws CommandException {
         Player player = Bukkit.getPlayer(arg);
         if (player == null) {
-            throw new CommandException("Invalid player: &l" + arg);
+            throw new InvalidInputException("Invalid player: &l" + arg);
         }
         return player;
     }
 
     private static List<Player> selectRandomPlayers(int count) {
-        if (Bukkit.getOnlinePlayers().size() < count) {
-            throw new CommandException("Less than " + count + " players online.");
-        }
-        List<Player> players = new ArrayList<>(count);
-        List<Player> onlinePlayers = new ArrayList<>(Bukkit.getOnlinePlayers());
-        for (int i = 0; i < count; i++) {
-            Player player = onlinePlayers.get((int) (Math.random() * onlinePlayers.size()));
-            players.add(player);
-            onlinePlayers.remove(player);
+        Collection<? extends Player> onlinePlayers = Bukkit.getOnlinePlayers();
+        if (onlinePlayers.size() < count) {
+            throw new InvalidInputException("Less than " + count + " players online.");
         }
-        return players;
+        return selectRandom(onlinePlayers, count);
     }
 }
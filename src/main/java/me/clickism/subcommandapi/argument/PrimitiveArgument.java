@@ -0,0 +1,37 @@
+package me.clickism.subcommandapi.argument;
+
+import me.clickism.subcommandapi.command.CommandException;
+import org.bukkit.command.CommandSender;
+
+/**
+ * An argument whose value can be stored as a primitive without boxing.
+ * <p>
+ * The argument handler parses these arguments with {@link #parseRaw(CommandSender, String)} and stores
+ * the raw value in a primitive array, which can be read with the primitive getters of the argument handler.
+ *
+ * @param <T> the boxed type of the argument
+ */
+public interface PrimitiveArgument<T> {
+    /**
+     * Parses the argument to its raw value.
+     * <ul>
+     *     <li>Integers and longs are stored as their value.</li>
+     *     <li>Doubles are stored as their raw long bits.</li>
+     *     <li>Booleans are stored as 1 for true and 0 for false.</li>
+     * </ul>
+     *
+     * @param sender command sender
+     * @param arg    argument
+     * @return the raw value
+     * @throws CommandException if the argument is invalid
+     */
+    long parseRaw(CommandSender sender, String arg) throws CommandException;
+
+    /**
+     * Converts a raw value to the boxed value of the argument.
+     *
+     * @param raw the raw value
+     * @return the boxed value
+     */
+    T box(long raw);
+}
@@ -1,11 +1,15 @@
 package me.clickism.subcommandapi.argument;
 
 import me.clickism.subcommandapi.command.CommandException;
+import me.clickism.subcommandapi.command.InvalidInputException;
+import me.clickism.subcommandapi.util.CompletionIndex;
 import me.clickism.subcommandapi.util.Named;
 import me.clickism.subcommandapi.util.NamedCollection;
 import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.function.Supplier;
 
 /**
@@ -16,6 +20,8 @@ import java.util.function.Supplier;
  */
 public class SelectionArgument<T extends Named> extends Argument<T> {
     private final Supplier<NamedCollection<T>> optionsSupplier;
+    @Nullable
+    private final NamedCollection<T> options;
 
     /**
      * Creates a new selection argument.
@@ -25,7 +31,7 @@ public class SelectionArgument<T extends Named> extends Argument<T> {
      * @param options  collection of named options
      */
     public SelectionArgument(String name, boolean required, NamedCollection<T> options) {
-        this(name, required, () -> options);
+        this(name, required, () -> options, options);
     }
 
     /**
@@ -36,22 +42,62 @@ public class SelectionArgument<T extends Named> extends Argument<T> {
      * @param optionsSupplier supplier of the collection of named options
      */
     public SelectionArgument(String name, boolean required, Supplier<NamedCollection<T>> optionsSupplier) {
+        this(name, required, optionsSupplier, null);
+    }
+
+    private SelectionArgument(String name, boolean required, Supplier<NamedCollection<T>> optionsSupplier,
+                              @Nullable NamedCollection<T> options) {
         super(name, required);
         this.optionsSupplier = optionsSupplier;
+        this.options = options;
+    }
+
+    /**
+     * Whether the tab completion can be cached, true if the argument was created with a fixed collection.
+     * Cached completions are discarded when the collection changes.
+     *
+     * @return true if the tab completion can be cached
+     */
+    @Override
+    public boolean isCompletionCacheable() {
+        return options != null;
     }
 
+    @Override
+    public long getCompletionVersion() {
+        return options != null ? super.getCompletionVersion() + options.getVersion() : super.getCompletionVersion();
+    }
+
+    /**
+     * Gets the names of the options that start with the argument, ignoring case, through the sorted index
+     * of the collection. If no name starts with the argument, gets the names that contain the argument
+     * as a subsequence. At most {@link #MAX_COMPLETIONS} names are returned.
+     *
+     * @param sender command sender
+     * @param arg    argument
+     * @return tab completion
+     */
     @Override
     public List<String> getTabCompletion(CommandSender sender, String arg) {
-        return optionsSupplier.get().stream()
-                .map(Named::getName)
-                .toList();
+        NamedCollection<T> options = optionsSupplier.get();
+        List<String> names = options.getNamesByPrefix(arg, MAX_COMPLETIONS);
+        if (!names.isEmpty() || arg.isEmpty()) return names;
+        String key = arg.toLowerCase(Locale.ROOT);
+        for (T option : options) {
+            if (names.size() >= MAX_COMPLETIONS) break;
+            String name = option.getName();
+            if (CompletionIndex.isSubsequence(name.toLowerCase(Locale.ROOT), key)) {
+                names.add(name);
+            }
+        }
+        return names;
     }
 
     @Override
     public T parse(CommandSender sender, String arg) throws CommandException {
         T option = optionsSupplier.get().get(arg);
         if (option == null) {
-            throw new CommandException("Invalid " + getName() + ": &l" + arg);
+            throw new InvalidInputException("Invalid " + getName() + ": &l" + arg);
         }
         return option;
     }
@@ -1,6 +1,10 @@
 package me.clickism.subcommandapi.argument;
 
 import me.clickism.subcommandapi.command.CommandException;
+import me.clickism.subcommandapi.command.DeferredCommandException;
+import me.clickism.subcommandapi.command.InvalidInputException;
+import me.clickism.subcommandapi.util.OfflinePlayerIndex;
+import me.clickism.subcommandapi.util.OfflinePlayerResolver;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.command.CommandSender;
@@ -9,10 +13,15 @@ import org.bukkit.entity.Player;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
  * Represents an argument that parses a single offline player.
+ * <p>
+ * If the {@link OfflinePlayerIndex} is initialized, players are completed through it.
+ * If the {@link OfflinePlayerResolver} is initialized, players are resolved through it, and unknown players
+ * are looked up asynchronously instead of blocking the server thread.
  */
 public class SingleOfflinePlayerArgument extends Argument<OfflinePlayer> {
     /**
@@ -27,7 +36,10 @@ public class SingleOfflinePlayerArgument extends Argument<OfflinePlayer> {
 
     @Override
     public List<String> getTabCompletion(CommandSender sender, String arg) {
-        List<String> list = Arrays.stream(Bukkit.getOfflinePlayers())
+        OfflinePlayerIndex index = OfflinePlayerIndex.getInstance();
+        List<String> list = index != null
+                ? index.getNames(arg, MAX_COMPLETIONS)
+                : Arrays.stream(Bukkit.getOfflinePlayers())
                 .map(OfflinePlayer::getName)
                 .collect(Collectors.toCollection(ArrayList::new));
         list.add("@r");
@@ -41,15 +53,35 @@ public class SingleOfflinePlayerArgument extends Argument<OfflinePlayer> {
             if (sender instanceof Player player) {
                 return player;
             }
-            throw new CommandException("Only players can use this selector.");
+            throw new InvalidInputException("Only players can use this selector.");
         }
+        OfflinePlayerIndex index = OfflinePlayerIndex.getInstance();
         if (arg.equalsIgnoreCase("@r")) {
+            if (index != null) {
+                UUID uuid = index.getRandomUniqueId();
+                if (uuid == null) {
+                    throw new InvalidInputException("No players online.");
+                }
+                return Bukkit.getOfflinePlayer(uuid);
+            }
             OfflinePlayer[] offlinePlayers = Bukkit.getOfflinePlayers();
             if (offlinePlayers.length == 0) {
-                throw new CommandException("No players online.");
+                throw new InvalidInputException("No players online.");
             }
             return offlinePlayers[(int) (Math.random() * offlinePlayers.length)];
         }
+        OfflinePlayerResolver resolver = OfflinePlayerResolver.getInstance();
+        if (resolver != null) {
+            UUID uuid = resolver.getCachedUniqueId(arg);
+            if (uuid != null) {
+                return Bukkit.getOfflinePlayer(uuid);
+            }
+            if (resolver.isUnknown(arg)) {
+                throw new InvalidInputException("Invalid player: &l" + arg);
+            }
+            throw new DeferredCommandException("Looking up player &l" + arg + "&c, please try again.",
+                    resolver.resolve(arg));
+        }
         @SuppressWarnings("deprecation")
         OfflinePlayer player = Bukkit.getOfflinePlayer(arg);
         return player;
@@ -1,6 +1,6 @@
 package me.clickism.subcommandapi.argument;
 
-import me.clickism.subcommandapi.command.CommandException;
+import me.clickism.subcommandapi.command.InvalidInputException;
 import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
@@ -40,18 +40,18 @@ public class SinglePlayerArgument extends Argument<Player> {
             if (sender instanceof Player player) {
                 return player;
             }
-            throw new CommandException("Only players can use this selector.");
+            throw new InvalidInputException("Only players can use this selector.");
         }
         if (arg.equalsIgnoreCase("@r")) {
             if (Bukkit.getOnlinePlayers().isEmpty()) {
-                throw new CommandException("No players online.");
+                throw new InvalidInputException("No players online.");
             }
             Player[] players = Bukkit.getOnlinePlayers().toArray(Player[]::new);
             return players[(int) (Math.random() * players.length)];
         }
         Player player = Bukkit.getPlayer(arg);
         if (player == null) {
-            throw new CommandException("Invalid player: &l" + arg);
+            throw new InvalidInputException("Invalid player: &l" + arg);
         }
         return player;
     }
@@ -1,10 +1,14 @@
 package me.clickism.subcommandapi.argument;
 
-import me.clickism.subcommandapi.command.CommandException;
+import me.clickism.subcommandapi.command.InvalidInputException;
 import me.clickism.subcommandapi.command.Subcommand;
+import me.clickism.subcommandapi.command.SubcommandGroup;
 import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -12,39 +16,136 @@ import java.util.stream.Collectors;
  */
 public class SubcommandArgument extends Argument<Subcommand> {
     private final List<Subcommand> subcommands;
+    private final Function<String, Subcommand> resolver;
+    @Nullable
+    private final SubcommandGroup group;
+    @Nullable
+    private volatile Hint hint;
 
     /**
      * Create a new subcommand argument with the given subcommands.
+     * <p>
+     * Subcommands are resolved by scanning the list. Prefer {@link #SubcommandArgument(SubcommandGroup, boolean)}
+     * to resolve them through the index of the group.
      *
      * @param subcommands the subcommands
      * @param required    whether the argument is required
      */
     public SubcommandArgument(List<Subcommand> subcommands, boolean required) {
+        this(subcommands, required, null, arg -> {
+            for (Subcommand subcommand : subcommands) {
+                if (subcommand.getLabel().equalsIgnoreCase(arg)) return subcommand;
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Create a new subcommand argument for the subcommands of the given group.
+     * Subcommands are resolved by label or alias through the index of the group.
+     *
+     * @param group    the subcommand group
+     * @param required whether the argument is required
+     */
+    public SubcommandArgument(SubcommandGroup group, boolean required) {
+        this(group.getSubcommands(), required, group, group::getSubcommand);
+    }
+
+    private SubcommandArgument(List<Subcommand> subcommands, boolean required, @Nullable SubcommandGroup group,
+                               Function<String, Subcommand> resolver) {
         super("subcommand", required);
         this.subcommands = subcommands;
+        this.group = group;
+        this.resolver = resolver;
+    }
+
+    /**
+     * Whether the tab completion can be cached. True if the argument belongs to a group, which invalidates
+     * the completion when it changes, and access to all subcommands is determined by the operator status.
+     *
+     * @return true if the tab completion can be cached
+     */
+    @Override
+    public boolean isCompletionCacheable() {
+        if (group == null) return false;
+        for (Subcommand subcommand : subcommands) {
+            if (!subcommand.isAccessDeterminedByOp()) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isCompletionNarrowable() {
+        return true;
     }
 
     @Override
     public List<String> getTabCompletion(CommandSender sender, String arg) {
-        return subcommands.stream()
-                .filter(s -> s.canExecute(sender))
-                .map(Subcommand::getLabel)
-                .collect(Collectors.toList());
+        List<String> labels = new ArrayList<>(subcommands.size());
+        for (Subcommand subcommand : subcommands) {
+            if (subcommand.isAllowed(sender)) {
+                labels.add(subcommand.getLabel());
+            }
+        }
+        return labels;
     }
 
     @Override
     public Subcommand parse(CommandSender sender, String arg) {
-        return subcommands.stream()
-                .filter(subcommand -> subcommand.getLabel().equalsIgnoreCase(arg))
-                .findFirst()
-                .orElseThrow(() -> new CommandException("Invalid subcommand: &l" + arg));
+        Subcommand subcommand = resolver.apply(arg);
+        if (subcommand == null) {
+            throw new InvalidInputException("Invalid subcommand: &l" + arg);
+        }
+        return subcommand;
+    }
+
+    /**
+     * Gets the version of the tab completion of the argument. Arguments for the subcommands of a group
+     * share the version of {@link SubcommandGroup#getSubcommandArgument() the argument of the group},
+     * which changes whenever the labels of the group change.
+     *
+     * @return version of the tab completion
+     */
+    @Override
+    public long getCompletionVersion() {
+        SubcommandArgument source = group != null ? group.getSubcommandArgument() : null;
+        if (source == null || source == this) return super.getCompletionVersion();
+        return source.getCompletionVersion();
+    }
+
+    /**
+     * Whether the hint of the argument can be cached by the subcommand it belongs to. Always false,
+     * since the labels of the subcommands can change after the usage is built.
+     *
+     * @return false
+     */
+    @Override
+    public boolean isHintCacheable() {
+        return false;
     }
 
+    /**
+     * Gets the hint of the argument, i.E: {@code <add/remove/list>}. The hint of an argument for the
+     * subcommands of a group is cached until the labels of the group change.
+     *
+     * @return the hint of the argument
+     */
     @Override
     public String getHint() {
-        return "<" + subcommands.stream()
+        long version = getCompletionVersion();
+        Hint hint = this.hint;
+        if (hint != null && hint.version == version) return hint.text;
+        String text = "<" + subcommands.stream()
                 .map(Subcommand::getLabel)
                 .collect(Collectors.joining("/"))
                 + ">";
+        if (group != null) this.hint = new Hint(version, text);
+        return text;
+    }
+
+    /**
+     * A hint built at a completion version.
+     */
+    private record Hint(long version, String text) {
     }
 }
@@ -1,6 +1,8 @@
 package me.clickism.subcommandapi.argument;
 
 import me.clickism.subcommandapi.command.CommandException;
+import me.clickism.subcommandapi.command.InvalidInputException;
+import me.clickism.subcommandapi.util.Numbers;
 import org.bukkit.command.CommandSender;
 
 import java.util.List;
@@ -10,7 +12,7 @@ import java.util.List;
  * <p>
  * The parsed value is in seconds.
  */
-public class TimeArgument extends Argument<Long> {
+public class TimeArgument extends Argument<Long> implements PrimitiveArgument<Long> {
     private static final List<Character> TIME_FORMATS = List.of('s', 'm', 'h', 'd');
 
     /**
@@ -33,20 +35,66 @@ public class TimeArgument extends Argument<Long> {
                 .toList();
     }
 
+    @Override
+    public boolean isCompletionCacheable() {
+        return true;
+    }
+
     @Override
     public Long parse(CommandSender sender, String arg) throws CommandException {
-        try {
-            long time = Long.parseLong(arg.substring(0, arg.length() - 1));
-            char format = arg.charAt(arg.length() - 1);
-            return switch (format) {
-                case 's' -> time;
-                case 'm' -> time * 60;
-                case 'h' -> time * 60 * 60;
-                case 'd' -> time * 60 * 60 * 24;
-                default -> throw new IllegalArgumentException("Unexpected value: " + format);
-            };
-        } catch (IllegalArgumentException exception) {
-            throw new CommandException("Invalid time format: &l" + arg + "&c.\nExpected: &l<number><s/m/h/d>&c Example: &l10m, 60s, 1d.");
+        return parseSeconds(sender, arg);
+    }
+
+    /**
+     * Parses the argument to seconds without boxing.
+     *
+     * @param sender command sender
+     * @param arg    argument
+     * @return the parsed time in seconds
+     * @throws CommandException if the argument is not a valid time
+     */
+    public long parseSeconds(CommandSender sender, String arg) throws CommandException {
+        if (!isValid(arg)) {
+            throw new InvalidInputException(getInvalidMessage(arg));
+        }
+        return toSeconds(arg);
+    }
+
+    @Override
+    public ParseResult<Long> tryParse(CommandSender sender, String arg) {
+        if (!isValid(arg)) {
+            return ParseResult.failure(getInvalidMessage(arg));
         }
+        return ParseResult.success(toSeconds(arg));
+    }
+
+    private static boolean isValid(String arg) {
+        return arg.length() > 1
+               && TIME_FORMATS.contains(arg.charAt(arg.length() - 1))
+               && Numbers.isLong(arg.substring(0, arg.length() - 1));
+    }
+
+    private static long toSeconds(String arg) {
+        long time = Long.parseLong(arg.substring(0, arg.length() - 1));
+        return switch (arg.charAt(arg.length() - 1)) {
+            case 'm' -> time * 60;
+            case 'h' -> time * 60 * 60;
+            case 'd' -> time * 60 * 60 * 24;
+            default -> time;
+        };
+    }
+
+    private static String getInvalidMessage(String arg) {
+        return "Invalid time format: &l" + arg + "&c.\nExpected: &l<number><s/m/h/d>&c Example: &l10m, 60s, 1d.";
+    }
+
+    @Override
+    public long parseRaw(CommandSender sender, String arg) throws CommandException {
+        return parseSeconds(sender, arg);
+    }
+
+    @Override
+    public Long box(long raw) {
+        return raw;
     }
 }
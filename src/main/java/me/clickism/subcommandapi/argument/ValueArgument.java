@@ -1,6 +1,8 @@
 package me.clickism.subcommandapi.argument;
 
 import me.clickism.subcommandapi.command.CommandException;
+import me.clickism.subcommandapi.command.InvalidInputException;
+import me.clickism.subcommandapi.util.ValueDomain;
 import org.bukkit.command.CommandSender;
 
 import java.util.List;
@@ -13,6 +15,7 @@ import java.util.function.Function;
  */
 public abstract class ValueArgument<T> extends Argument<T> {
     private final List<String> possibleValues;
+    private final ValueDomain<String> domain;
     private final Function<String, T> parser;
 
     /**
@@ -28,7 +31,7 @@ public abstract class ValueArgument<T> extends Argument<T> {
 
     /**
      * Create a new value argument with the given name, required status, and possible values.
-     * All values outside the possible values will be considered invalid.
+     * All values outside the possible values will be considered invalid, values are matched ignoring case.
      *
      * @param name           the name of the argument
      * @param required       whether the argument is required
@@ -39,6 +42,7 @@ public abstract class ValueArgument<T> extends Argument<T> {
         super(name, required);
         this.parser = parser;
         this.possibleValues = possibleValues;
+        this.domain = possibleValues != null ? ValueDomain.of(possibleValues) : null;
     }
 
     /**
@@ -52,18 +56,33 @@ public abstract class ValueArgument<T> extends Argument<T> {
 
     @Override
     public List<String> getTabCompletion(CommandSender sender, String arg) {
-        return possibleValues == null ? List.of(getHint()) : possibleValues;
+        return domain == null ? List.of(getHint()) : domain.getCompletion();
+    }
+
+    /**
+     * Whether the tab completion can be cached, true if the argument has possible values.
+     *
+     * @return true if the tab completion can be cached
+     */
+    @Override
+    public boolean isCompletionCacheable() {
+        return domain != null;
+    }
+
+    @Override
+    public boolean isCompletionNarrowable() {
+        return true;
     }
 
     @Override
     public T parse(CommandSender sender, String arg) throws CommandException {
-        if (possibleValues != null && !possibleValues.contains(arg.toLowerCase())) {
-            throw new CommandException("Invalid value: &l" + arg);
+        if (domain != null && !domain.contains(arg)) {
+            throw new InvalidInputException("Invalid value: &l" + arg);
         }
         try {
             return parser.apply(arg);
         } catch (Exception exception) {
-            throw new CommandException("Invalid value: &l" + arg);
+            throw new InvalidInputException("Invalid value: &l" + arg);
         }
     }
 }
@@ -1,20 +1,70 @@
 package me.clickism.subcommandapi.command;
 
 import me.clickism.subcommandapi.argument.Argument;
+import me.clickism.subcommandapi.argument.PrimitiveArgument;
 import org.bukkit.command.CommandSender;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * A class that handles the arguments passed to a command.
+ * <p>
+ * Parsed values are stored in slots, indexed by the {@link Argument#getSlot() slot} of each argument.
+ * Values of {@link PrimitiveArgument primitive arguments} are stored without boxing, and can be read
+ * without boxing with the primitive getters, i.E: {@link #getInt(Argument)}. Primitive arguments whose
+ * {@link Argument#parse(CommandSender, String) parse} method is overridden by a subclass are parsed with it
+ * instead, so the validation of the subclass is not bypassed.
+ * <p>
+ * Handlers for nested subcommands share the arguments and flags of the handler they were trimmed from,
+ * so each level only parses its own arguments. Values of the arguments of enclosing subcommands can be
+ * read from the handlers of nested subcommands.
+ * <p>
+ * If the subcommand {@link Subcommand#isLazyArguments() parses its arguments lazily}, only the number of
+ * arguments is validated up front, and each argument is parsed when its value is first requested. If the
+ * value is invalid, the getters throw the same {@link CommandException} every time it is requested, except
+ * {@link #getOrNull(Argument)} and {@link #has(Argument)}, which do not throw.
+ * <p>
+ * {@link Argument#isParsedAsync() Asynchronous arguments} are all started when the handler is created,
+ * and the subcommand is executed once all of them completed. Arguments that are parsed up front and throw a
+ * {@link DeferredCommandException} are parsed again once the value they are waiting for is resolved.
  */
 public class ArgumentHandler {
+    private static final ClassValue<Boolean> RAW_PARSE = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                Class<?> parseClass = type.getMethod("parse", CommandSender.class, String.class).getDeclaringClass();
+                Class<?> rawClass = type.getMethod("parseRaw", CommandSender.class, String.class).getDeclaringClass();
+                return parseClass.isAssignableFrom(rawClass);
+            } catch (NoSuchMethodException exception) {
+                return false;
+            }
+        }
+    };
+    private static final byte ABSENT = 0;
+    private static final byte PRESENT = 1;
+    private static final byte PRIMITIVE = 2;
+    private static final byte PENDING = 3;
+    private static final byte RESOLVING = 4;
+    private static final byte DEFERRED = 5;
+    private static final byte FAILED = 6;
+
     private final CommandSender sender;
-    private final String[] args;
-    private final Map<Argument<?>, Object> parsedArguments = new HashMap<>();
+    private final ArgumentView args;
+    @Nullable
+    private final ArgumentHandler parent;
+    private final List<Argument<?>> arguments;
+    private final byte[] states;
+    private final Object[] values;
+    private final long[] primitives;
     private final Set<String> flags;
+    private final long[] parseNanos;
+    @Nullable
+    private CompletableFuture<?>[] resolving;
 
     /**
      * Creates a new ArgumentHandler with the given arguments.
@@ -24,29 +74,69 @@ public class ArgumentHandler {
      * @param args       arguments
      */
     public ArgumentHandler(CommandSender sender, Subcommand subcommand, String[] args) throws CommandException {
+        this(sender, subcommand, new ArgumentView(args), null, new HashSet<>(), new long[1]);
+    }
+
+    private ArgumentHandler(CommandSender sender, Subcommand subcommand, ArgumentView args,
+                            @Nullable ArgumentHandler parent, Set<String> flags,
+                            long[] parseNanos) throws CommandException {
         this.sender = sender;
         this.args = args;
-        this.flags = new HashSet<>(subcommand.getFlags().size());
-        parseFlags(subcommand);
-        parseArguments(subcommand);
+        this.parent = parent;
+        this.arguments = subcommand.getArguments();
+        int size = arguments.size();
+        this.states = new byte[size];
+        this.values = new Object[size];
+        this.primitives = new long[size];
+        this.flags = flags;
+        this.parseNanos = parseNanos;
+        long start = System.nanoTime();
+        try {
+            parseFlags(subcommand);
+            parseArguments(subcommand.isLazyArguments());
+        } finally {
+            parseNanos[0] += System.nanoTime() - start;
+        }
     }
 
     /**
      * Returns a new ArgumentHandler with trimmed arguments that will be used by the given subcommand.
+     * <p>
+     * The new handler shares the arguments of this handler and does not copy them.
      *
      * @param subcommand subcommand that will use the new arguments
      * @return new ArgumentHandler with trimmed arguments
      */
     public ArgumentHandler trimmed(Subcommand subcommand) throws CommandException {
-        return new ArgumentHandler(sender, subcommand, trimArgs(args));
+        return new ArgumentHandler(sender, subcommand, args.shift(), this, flags, parseNanos);
+    }
+
+    /**
+     * Get the time spent parsing arguments by this handler and the handlers trimmed from it.
+     *
+     * @return parse time in nanoseconds
+     */
+    public long getParseNanos() {
+        return parseNanos[0];
     }
 
     /**
      * Get all arguments.
+     * <p>
+     * This copies the arguments, use {@link #getArgumentView()} to avoid copying.
      *
      * @return arguments
      */
     public String[] getArgs() {
+        return args.toArray();
+    }
+
+    /**
+     * Get a view of all arguments.
+     *
+     * @return view of the arguments
+     */
+    public ArgumentView getArgumentView() {
         return args;
     }
 
@@ -57,34 +147,263 @@ public class ArgumentHandler {
         List<String> subcommandFlags = subcommand.getFlags();
         // Parse flags
         if (!subcommandFlags.isEmpty()) {
-            for (String arg : args) {
+            for (int i = 0; i < args.size(); i++) {
+                String arg = args.get(i);
                 if (!arg.startsWith("--")) continue;
-                if (arg.length() < 3 || !subcommandFlags.contains(arg.substring(2).toLowerCase())) {
-                    throw new CommandException("Invalid flag: " + arg);
+                if (arg.length() < 3 || !subcommandFlags.contains(arg.substring(2).toLowerCase(Locale.ROOT))) {
+                    throw new InvalidInputException("Invalid flag: " + arg);
                 }
-                flags.add(arg.substring(2).toLowerCase());
+                flags.add(arg.substring(2).toLowerCase(Locale.ROOT));
             }
         }
     }
 
     /**
-     * Parses the arguments for the given subcommand.
+     * Parses the arguments of the subcommand into their slots.
+     * If lazy is true, the arguments are only marked as pending.
      */
-    private void parseArguments(Subcommand subcommand) throws CommandException {
-        List<Argument<?>> arguments = subcommand.getArguments();
+    private void parseArguments(boolean lazy) throws CommandException {
         // Parse arguments
         for (int i = 0; i < arguments.size(); i++) {
             Argument<?> argument = arguments.get(i);
-            if (args.length <= i) {
+            if (args.size() <= i) {
                 if (!argument.isRequired()) break;
-                throw new CommandException("Not enough arguments. Usage: {usage}");
+                throw new InvalidInputException("Not enough arguments. Usage: {usage}");
             }
-            String arg = args[i];
+            String arg = args.get(i);
             if (arg.startsWith("--")) {
                 continue; // Skip flag
             }
-            parsedArguments.put(argument, argument.parse(sender, arg));
+            if (argument.isParsedAsync() && !isParsedRaw(argument)) {
+                startAsync(i, argument, arg);
+                continue;
+            }
+            if (lazy) {
+                states[i] = PENDING;
+                continue;
+            }
+            try {
+                parseSlot(i, argument, arg);
+            } catch (DeferredCommandException exception) {
+                await(i, exception.getFuture());
+                states[i] = DEFERRED;
+            }
+        }
+    }
+
+    /**
+     * Parses the given argument into the given slot.
+     */
+    private void parseSlot(int i, Argument<?> argument, String arg) throws CommandException {
+        if (isParsedRaw(argument)) {
+            PrimitiveArgument<?> primitiveArgument = (PrimitiveArgument<?>) argument;
+            primitives[i] = primitiveArgument.parseRaw(sender, arg);
+            states[i] = PRIMITIVE;
+        } else {
+            values[i] = argument.parse(sender, arg);
+            states[i] = PRESENT;
+        }
+    }
+
+    /**
+     * Whether the given argument is parsed to its raw value, that is, it is a primitive argument whose
+     * parse method is not overridden below the class that implements its raw parsing.
+     */
+    private static boolean isParsedRaw(Argument<?> argument) {
+        return argument instanceof PrimitiveArgument<?> && RAW_PARSE.get(argument.getClass());
+    }
+
+    /**
+     * Starts parsing the given asynchronous argument into the given slot.
+     * Arguments that are parsed immediately are stored right away.
+     */
+    private void startAsync(int i, Argument<?> argument, String arg) throws CommandException {
+        CompletableFuture<?> future = argument.parseAsync(sender, arg);
+        if (future.isDone()) {
+            values[i] = join(future);
+            states[i] = PRESENT;
+            return;
+        }
+        await(i, future);
+        states[i] = RESOLVING;
+    }
+
+    /**
+     * Waits for the given future before the argument in the given slot is resolved.
+     */
+    private void await(int i, CompletableFuture<?> future) {
+        if (resolving == null) {
+            resolving = new CompletableFuture<?>[arguments.size()];
+        }
+        resolving[i] = future;
+    }
+
+    /**
+     * Whether asynchronous arguments of this handler are still being parsed.
+     *
+     * @return true if {@link #resolveArguments()} must be called before the arguments are read
+     */
+    boolean hasResolvingArguments() {
+        return resolving != null;
+    }
+
+    /**
+     * Returns a future that completes once all asynchronous arguments of this handler completed,
+     * even if some of them are invalid.
+     *
+     * @return future that completes once all asynchronous arguments completed
+     */
+    CompletableFuture<Void> awaitArguments() {
+        if (resolving == null) return CompletableFuture.completedFuture(null);
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (CompletableFuture<?> future : resolving) {
+            if (future != null) futures.add(future);
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .handle((ignored, throwable) -> null);
+    }
+
+    /**
+     * Stores the values of the completed asynchronous arguments into their slots, and parses the deferred
+     * arguments again. Must be called on the thread that executes the subcommand, after
+     * {@link #awaitArguments()} completed.
+     *
+     * @throws CommandException if an asynchronous or deferred argument is invalid
+     */
+    void resolveArguments() throws CommandException {
+        if (resolving == null) return;
+        CompletableFuture<?>[] futures = resolving;
+        resolving = null;
+        for (int i = 0; i < futures.length; i++) {
+            if (futures[i] == null) continue;
+            if (states[i] == DEFERRED) {
+                parsePending(i);
+                continue;
+            }
+            values[i] = join(futures[i]);
+            states[i] = PRESENT;
+        }
+    }
+
+    /**
+     * Gets the value of a completed future, unwrapping the exception if the argument is invalid.
+     */
+    private static Object join(CompletableFuture<?> future) throws CommandException {
+        try {
+            return future.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof CommandException commandException) {
+                throw commandException;
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * Parses the pending argument in the given slot. If the argument is invalid, the exception is kept
+     * in the slot and thrown again whenever the value is requested.
+     */
+    private void parsePending(int slot) throws CommandException {
+        long start = System.nanoTime();
+        try {
+            parseSlot(slot, arguments.get(slot), args.get(slot));
+        } catch (CommandException exception) {
+            values[slot] = exception;
+            states[slot] = FAILED;
+            throw exception;
+        } finally {
+            parseNanos[0] += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Finds the slot of the given argument in this handler.
+     *
+     * @return the slot, or -1 if the argument does not belong to the subcommand of this handler
+     */
+    private int slotOf(Argument<?> argument) {
+        int slot = argument.getSlot();
+        if (slot >= 0 && slot < arguments.size() && arguments.get(slot) == argument) {
+            return slot;
+        }
+        // The argument was added to multiple subcommands
+        for (int i = 0; i < arguments.size(); i++) {
+            if (arguments.get(i) == argument) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the handler that holds the value of the given argument, parsing it if it is pending.
+     *
+     * @return the handler, or null if no handler holds a value for the argument
+     * @throws CommandException if the pending argument is invalid
+     */
+    @Nullable
+    private ArgumentHandler holderOf(Argument<?> argument) {
+        ArgumentHandler holder = inputHolderOf(argument);
+        if (holder == null) return null;
+        int slot = holder.slotOf(argument);
+        if (holder.states[slot] == PENDING) {
+            holder.parsePending(slot);
+        }
+        if (holder.states[slot] == FAILED) {
+            throw (CommandException) holder.values[slot];
+        }
+        return holder;
+    }
+
+    /**
+     * Finds the handler that was passed input for the given argument, without parsing it.
+     *
+     * @return the handler, or null if no input was passed for the argument
+     */
+    @Nullable
+    private ArgumentHandler inputHolderOf(Argument<?> argument) {
+        for (ArgumentHandler handler = this; handler != null; handler = handler.parent) {
+            int slot = handler.slotOf(argument);
+            if (slot >= 0) {
+                return handler.states[slot] != ABSENT ? handler : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the raw value of the given primitive argument.
+     *
+     * @throws CommandException if there was no value passed for this argument
+     */
+    private long getRaw(Argument<?> argument) {
+        ArgumentHandler holder = holderOf(argument);
+        if (holder == null) {
+            throw new InvalidInputException("Expected argument: " + argument.getName());
+        }
+        int slot = holder.slotOf(argument);
+        if (holder.states[slot] == PRIMITIVE) {
+            return holder.primitives[slot];
         }
+        // Parsed by an overridden parse method
+        Object value = holder.values[slot];
+        if (value instanceof Double number) return Double.doubleToRawLongBits(number);
+        if (value instanceof Boolean bool) return bool ? 1 : 0;
+        return ((Number) value).longValue();
+    }
+
+    /**
+     * Gets the boxed value of the given argument.
+     *
+     * @return the value, or null if there was no value passed for this argument
+     */
+    @Nullable
+    private Object getValue(Argument<?> argument) {
+        ArgumentHandler holder = holderOf(argument);
+        if (holder == null) return null;
+        int slot = holder.slotOf(argument);
+        if (holder.states[slot] == PRIMITIVE) {
+            return ((PrimitiveArgument<?>) argument).box(holder.primitives[slot]);
+        }
+        return holder.values[slot];
     }
 
     /**
@@ -93,7 +412,7 @@ public class ArgumentHandler {
      * @return number of arguments
      */
     public int size() {
-        return args.length;
+        return args.size();
     }
 
     /**
@@ -102,28 +421,34 @@ public class ArgumentHandler {
      * @param argument argument
      * @param <T>      type of the parsed argument
      * @return value of the argument
-     * @throws CommandException if there was no value passed for this argument
+     * @throws CommandException if there was no value passed for this argument, or if it is parsed lazily and invalid
      */
     @NotNull
     @SuppressWarnings("unchecked")
     public <T> T get(Argument<T> argument) {
-        if (!parsedArguments.containsKey(argument)) {
-            throw new CommandException("Expected argument: " + argument.getName());
+        if (!has(argument)) {
+            throw new InvalidInputException("Expected argument: " + argument.getName());
         }
-        return (T) parsedArguments.get(argument);
+        return (T) getValue(argument);
     }
 
     /**
      * Get the passed value for the given argument.
+     * <p>
+     * If the arguments are parsed lazily and the value is invalid, returns null instead of throwing.
      *
      * @param argument argument
      * @param <T>      type of the parsed argument
-     * @return value of the argument, or null if no value was passed
+     * @return value of the argument, or null if no value was passed or the value is invalid
      */
     @Nullable
     @SuppressWarnings("unchecked")
     public <T> T getOrNull(Argument<T> argument) {
-        return (T) parsedArguments.get(argument);
+        try {
+            return (T) getValue(argument);
+        } catch (CommandException exception) {
+            return null;
+        }
     }
 
     /**
@@ -136,18 +461,121 @@ public class ArgumentHandler {
      */
     @SuppressWarnings("unchecked")
     public <T> T getOrDefault(Argument<T> argument, T defaultValue) {
-        T value = (T) parsedArguments.get(argument);
+        T value = (T) getValue(argument);
         return value != null ? value : defaultValue;
     }
 
+    /**
+     * Get the passed value for the given integer argument without boxing.
+     *
+     * @param argument argument
+     * @param <A>      type of the argument
+     * @return value of the argument
+     * @throws CommandException if there was no value passed for this argument
+     */
+    public <A extends Argument<Integer> & PrimitiveArgument<Integer>> int getInt(A argument) {
+        return (int) getRaw(argument);
+    }
+
+    /**
+     * Get the passed value for the given integer argument without boxing,
+     * or the default value if no value was passed.
+     *
+     * @param argument     argument
+     * @param defaultValue default value
+     * @param <A>          type of the argument
+     * @return value of the argument, or the default value if no value was passed
+     */
+    public <A extends Argument<Integer> & PrimitiveArgument<Integer>> int getIntOrDefault(A argument, int defaultValue) {
+        return has(argument) ? getInt(argument) : defaultValue;
+    }
+
+    /**
+     * Get the passed value for the given long argument without boxing.
+     *
+     * @param argument argument
+     * @param <A>      type of the argument
+     * @return value of the argument
+     * @throws CommandException if there was no value passed for this argument
+     */
+    public <A extends Argument<Long> & PrimitiveArgument<Long>> long getLong(A argument) {
+        return getRaw(argument);
+    }
+
+    /**
+     * Get the passed value for the given long argument without boxing,
+     * or the default value if no value was passed.
+     *
+     * @param argument     argument
+     * @param defaultValue default value
+     * @param <A>          type of the argument
+     * @return value of the argument, or the default value if no value was passed
+     */
+    public <A extends Argument<Long> & PrimitiveArgument<Long>> long getLongOrDefault(A argument, long defaultValue) {
+        return has(argument) ? getLong(argument) : defaultValue;
+    }
+
+    /**
+     * Get the passed value for the given double argument without boxing.
+     *
+     * @param argument argument
+     * @param <A>      type of the argument
+     * @return value of the argument
+     * @throws CommandException if there was no value passed for this argument
+     */
+    public <A extends Argument<Double> & PrimitiveArgument<Double>> double getDouble(A argument) {
+        return Double.longBitsToDouble(getRaw(argument));
+    }
+
+    /**
+     * Get the passed value for the given double argument without boxing,
+     * or the default value if no value was passed.
+     *
+     * @param argument     argument
+     * @param defaultValue default value
+     * @param <A>          type of the argument
+     * @return value of the argument, or the default value if no value was passed
+     */
+    public <A extends Argument<Double> & PrimitiveArgument<Double>> double getDoubleOrDefault(A argument, double defaultValue) {
+        return has(argument) ? getDouble(argument) : defaultValue;
+    }
+
+    /**
+     * Get the passed value for the given boolean argument without boxing.
+     *
+     * @param argument argument
+     * @param <A>      type of the argument
+     * @return value of the argument
+     * @throws CommandException if there was no value passed for this argument
+     */
+    public <A extends Argument<Boolean> & PrimitiveArgument<Boolean>> boolean getBoolean(A argument) {
+        return getRaw(argument) != 0;
+    }
+
+    /**
+     * Get the passed value for the given boolean argument without boxing,
+     * or the default value if no value was passed.
+     *
+     * @param argument     argument
+     * @param defaultValue default value
+     * @param <A>          type of the argument
+     * @return value of the argument, or the default value if no value was passed
+     */
+    public <A extends Argument<Boolean> & PrimitiveArgument<Boolean>> boolean getBooleanOrDefault(A argument, boolean defaultValue) {
+        return has(argument) ? getBoolean(argument) : defaultValue;
+    }
+
     /**
      * Returns whether a value was passed for the given argument.
+     * <p>
+     * Does not parse the argument, so it does not throw if the arguments are parsed lazily and the value
+     * is invalid.
      *
      * @param argument argument
      * @return true if a value was passed for the argument
      */
     public boolean has(Argument<?> argument) {
-        return parsedArguments.containsKey(argument);
+        return inputHolderOf(argument) != null;
     }
 
     /**
@@ -157,7 +585,7 @@ public class ArgumentHandler {
      * @return true if the flag was passed
      */
     public boolean hasFlag(String flag) {
-        return flags.contains(flag.toLowerCase());
+        return flags.contains(flag.toLowerCase(Locale.ROOT));
     }
 
     /**
@@ -169,4 +597,4 @@ public class ArgumentHandler {
     public static String[] trimArgs(String[] args) {
         return Arrays.copyOfRange(args, 1, args.length);
     }
-}
\ No newline at end of file
+}
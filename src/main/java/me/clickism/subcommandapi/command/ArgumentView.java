@@ -0,0 +1,76 @@
+package me.clickism.subcommandapi.command;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A read-only view over the arguments of a command, starting at an offset.
+ * <p>
+ * Views share the backing array, so shifting a view to the arguments of a subcommand
+ * does not copy any arguments.
+ */
+public final class ArgumentView {
+    private final String[] args;
+    private final int offset;
+
+    /**
+     * Creates a new view over all the given arguments.
+     *
+     * @param args arguments
+     */
+    public ArgumentView(String[] args) {
+        this(args, 0);
+    }
+
+    private ArgumentView(String[] args, int offset) {
+        this.args = args;
+        this.offset = offset;
+    }
+
+    /**
+     * Get the argument at the given index, relative to the start of the view.
+     *
+     * @param index index of the argument
+     * @return the argument
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    public String get(int index) {
+        return args[offset + Objects.checkIndex(index, size())];
+    }
+
+    /**
+     * Returns the number of arguments in the view.
+     *
+     * @return number of arguments
+     */
+    public int size() {
+        return args.length - offset;
+    }
+
+    /**
+     * Returns whether the view has no arguments.
+     *
+     * @return true if the view has no arguments
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns a view without the first argument of this view.
+     *
+     * @return shifted view
+     */
+    public ArgumentView shift() {
+        return new ArgumentView(args, Math.min(offset + 1, args.length));
+    }
+
+    /**
+     * Copies the arguments of the view into a new array.
+     *
+     * @return arguments of the view
+     */
+    public String[] toArray() {
+        return offset == 0 ? args.clone() : Arrays.copyOfRange(args, offset, args.length);
+    }
+}
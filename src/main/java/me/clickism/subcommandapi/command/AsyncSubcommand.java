@@ -0,0 +1,186 @@
+package me.clickism.subcommandapi.command;
+
+import org.bukkit.command.CommandSender;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A subcommand that is executed asynchronously, i.E: to access a database without blocking the server thread.
+ * <p>
+ * The arguments are parsed on the server thread, then {@link #executeAsync(CommandStack, CommandSender, ArgumentHandler)}
+ * is called on the executor of the subcommand. Once the returned future completes, the result is handled on the
+ * server thread if the command manager was created with a plugin. Commands that do not complete within the
+ * timeout fail, but the execution is not interrupted, and the next command of the sender waits until it finished.
+ * <p>
+ * Commands of the same sender are executed one after another, in the order they were sent,
+ * through the {@link CommandQueue} of the command manager.
+ * <p>
+ * By default, subcommands are executed on virtual threads if they are available (Java 21+),
+ * otherwise on a bounded thread pool shared by all asynchronous subcommands.
+ */
+public abstract class AsyncSubcommand extends Subcommand {
+    /**
+     * Default timeout of asynchronous subcommands, in milliseconds.
+     */
+    public static final long DEFAULT_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private static final int MAX_QUEUED_TASKS = 1024;
+    private static final Executor DEFAULT_EXECUTOR = createDefaultExecutor();
+
+    private Executor executor = DEFAULT_EXECUTOR;
+    private long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+
+    /**
+     * Create a new asynchronous subcommand with the given label.
+     *
+     * @param label      the label of the subcommand
+     * @param requiresOp whether the subcommand requires operator permissions
+     */
+    public AsyncSubcommand(String label, boolean requiresOp) {
+        super(label, requiresOp);
+    }
+
+    /**
+     * Create a new asynchronous subcommand with the given label.
+     *
+     * @param label the label of the subcommand
+     */
+    public AsyncSubcommand(String label) {
+        super(label);
+    }
+
+    private static Executor createDefaultExecutor() {
+        try {
+            return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException exception) {
+            // Virtual threads are not available before Java 21
+        }
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(MAX_QUEUED_TASKS), runnable -> {
+            Thread thread = new Thread(runnable, "SubcommandAPI Async #" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Get the default executor of asynchronous subcommands.
+     *
+     * @return the default executor
+     */
+    public static Executor getDefaultExecutor() {
+        return DEFAULT_EXECUTOR;
+    }
+
+    /**
+     * Set the executor the subcommand is executed on.
+     *
+     * @param executor the executor
+     * @return the subcommand
+     */
+    public AsyncSubcommand setExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Get the executor the subcommand is executed on.
+     *
+     * @return the executor
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Set the time after which the execution fails if it did not complete.
+     * The execution itself is not interrupted.
+     *
+     * @param timeout the timeout
+     * @param unit    the unit of the timeout
+     * @return the subcommand
+     */
+    public AsyncSubcommand setTimeout(long timeout, TimeUnit unit) {
+        if (timeout <= 0) throw new IllegalArgumentException("Timeout must be positive: " + timeout);
+        this.timeoutMillis = unit.toMillis(timeout);
+        return this;
+    }
+
+    /**
+     * Get the time after which the execution fails if it did not complete.
+     *
+     * @param unit the unit of the returned timeout
+     * @return the timeout in the given unit
+     */
+    public long getTimeout(TimeUnit unit) {
+        return unit.convert(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Arguments of asynchronous subcommands are always parsed on the server thread, before they are executed.
+     *
+     * @return false
+     */
+    @Override
+    public boolean isLazyArguments() {
+        return false;
+    }
+
+    /**
+     * Creates the task that executes the subcommand on its executor. The task is started by the command
+     * manager once the previous commands of the sender completed.
+     *
+     * @param trace      the current trace of subcommands
+     * @param sender     sender of the command
+     * @param argHandler arguments
+     * @return a {@link CommandResult#pending(CompletableFuture) pending result}
+     */
+    @Override
+    protected final CommandResult execute(CommandStack trace, CommandSender sender, ArgumentHandler argHandler) {
+        CompletableFuture<CommandResult> result = new CompletableFuture<>();
+        return CommandResult.pending(result, () -> {
+            CompletableFuture<CommandResult> future;
+            try {
+                future = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return executeAsync(trace, sender, argHandler);
+                    } catch (CommandException exception) {
+                        throw new CompletionException(exception);
+                    }
+                }, executor).thenCompose(completed -> completed);
+            } catch (RejectedExecutionException exception) {
+                result.complete(CommandResult.failure("The server is busy, please try again later."));
+                return null;
+            }
+            // Times out a copy, so the sender's next command still waits for the execution itself
+            future.copy().orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).whenComplete((completed, throwable) -> {
+                if (throwable != null) {
+                    result.completeExceptionally(throwable);
+                } else {
+                    result.complete(completed);
+                }
+            });
+            return future;
+        });
+    }
+
+    /**
+     * Execute the subcommand asynchronously with the given arguments, assuming the sender has the required
+     * permissions to perform this command. Called on the executor of the subcommand.
+     * <p>
+     * Only relevant arguments are passed.
+     *
+     * @param trace      the current trace of subcommands
+     * @param sender     sender of the command
+     * @param argHandler arguments
+     * @return future that completes with the result of the command
+     * @throws CommandException if the command fails
+     */
+    protected abstract CompletableFuture<CommandResult> executeAsync(CommandStack trace, CommandSender sender,
+                                                                     ArgumentHandler argHandler) throws CommandException;
+}
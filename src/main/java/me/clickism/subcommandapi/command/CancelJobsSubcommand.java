@@ -0,0 +1,72 @@
+package me.clickism.subcommandapi.command;
+
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A subcommand that cancels the running {@link Job jobs} of the sender, i.E: {@code /admin cancel}.
+ * <p>
+ * Senders with the {@link #setAllPermission(String) permission to cancel all jobs}, or operators if no
+ * permission is set, can pass {@code --all} to cancel the jobs of all senders.
+ */
+public class CancelJobsSubcommand extends Subcommand {
+    private final JobScheduler jobs;
+    @Nullable
+    private String allPermission;
+
+    /**
+     * Create a new subcommand with the given label that cancels jobs of the given scheduler.
+     *
+     * @param label the label of the subcommand
+     * @param jobs  the job scheduler, i.E: {@link CommandManager#getJobScheduler()}
+     */
+    public CancelJobsSubcommand(String label, JobScheduler jobs) {
+        super(label);
+        this.jobs = jobs;
+        addFlag("all");
+    }
+
+    @Override
+    protected CommandResult execute(CommandStack trace, CommandSender sender, ArgumentHandler argHandler) {
+        int count;
+        if (argHandler.hasFlag("all")) {
+            if (!canCancelAll(sender)) return CommandResult.failure("You can't cancel the commands of others.");
+            count = jobs.cancelAll();
+        } else {
+            count = jobs.cancel(sender);
+        }
+        if (count == 0) return CommandResult.warning("There are no running commands to cancel.");
+        return CommandResult.success("Cancelled &l" + count + (count == 1 ? " command." : " commands."));
+    }
+
+    /**
+     * Require a permission to cancel the jobs of all senders with {@code --all}, instead of operator status.
+     *
+     * @param permission the permission, or null to only allow operators
+     * @return the subcommand
+     */
+    public CancelJobsSubcommand setAllPermission(@Nullable String permission) {
+        this.allPermission = permission;
+        return this;
+    }
+
+    /**
+     * Get the permission required to cancel the jobs of all senders.
+     *
+     * @return the permission, or null if only operators can cancel the jobs of all senders
+     */
+    @Nullable
+    public String getAllPermission() {
+        return allPermission;
+    }
+
+    /**
+     * Check if the sender can cancel the jobs of all senders.
+     *
+     * @param sender sender of the command
+     * @return true if the sender has the permission, or is an operator if no permission is set
+     */
+    public boolean canCancelAll(CommandSender sender) {
+        return allPermission != null ? sender.hasPermission(allPermission) : sender.isOp();
+    }
+}
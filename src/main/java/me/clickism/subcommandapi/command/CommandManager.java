@@ -1,25 +1,89 @@
 package me.clickism.subcommandapi.command;
 
+import me.clickism.subcommandapi.metrics.CommandMetrics;
 import me.clickism.subcommandapi.util.NamedCollection;
+import me.clickism.subcommandapi.util.OfflinePlayerIndex;
+import me.clickism.subcommandapi.util.OfflinePlayerResolver;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.command.*;
+import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
 
+import org.jetbrains.annotations.Nullable;
+
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 
 /**
  * Manages commands and their execution.
+ * <p>
+ * Root commands are resolved through a case-insensitive index of their labels and aliases,
+ * including the aliases declared in plugin.yml.
  */
 public class CommandManager implements CommandExecutor {
     private final TabCompleter tabCompleter = new CommandTabCompleter(this);
     private final NamedCollection<Subcommand> commands = new NamedCollection<>(new ArrayList<>());
+    private final CommandMetrics metrics = new CommandMetrics();
+    private final CompletionCache completionCache = new CompletionCache();
+    private final CompletionSessions completionSessions = new CompletionSessions();
+    private final RateLimiter completionLimiter = new RateLimiter(20, 40);
+    private final RateLimiter executionLimiter = new RateLimiter(5, 10);
+    private final CommandQueue commandQueue = new CommandQueue();
+    private final JobScheduler jobScheduler = new JobScheduler();
+    private final Map<Subcommand, List<String>> pluginAliases = new ConcurrentHashMap<>();
+    private volatile Map<String, Subcommand> index = Map.of();
+    @Nullable
+    private final Plugin plugin;
+    private volatile boolean bound;
 
     /**
      * Creates a new command manager.
      */
     public CommandManager() {
+        this.plugin = null;
+    }
+
+    /**
+     * Creates a new command manager for the given plugin.
+     * <p>
+     * Also initializes the {@link OfflinePlayerIndex} and the {@link OfflinePlayerResolver},
+     * used to complete and resolve offline players, and discards the completion sessions and the
+     * {@link VisibilityCache visibility} of players that quit.
+     * <p>
+     * Listeners can only be registered once the plugin is enabled. If it is not enabled yet, i.E: if the manager
+     * is created in a field initializer or in {@code onLoad}, they are set up once commands are registered,
+     * executed or completed after the plugin was enabled.
+     *
+     * @param plugin plugin that owns the commands
+     */
+    public CommandManager(Plugin plugin) {
+        this.plugin = plugin;
+        bindPlugin();
+    }
+
+    /**
+     * Initializes the shared indexes and caches with the plugin, once the plugin is enabled.
+     */
+    void bindPlugin() {
+        if (bound || plugin == null || !plugin.isEnabled()) return;
+        synchronized (this) {
+            if (bound) return;
+            OfflinePlayerIndex.initialize(plugin);
+            OfflinePlayerResolver.initialize(plugin);
+            completionSessions.register(plugin);
+            VisibilityCache.getInstance().register(plugin);
+            bound = true;
+        }
     }
 
     /**
@@ -29,18 +93,141 @@ public class CommandManager implements CommandExecutor {
      * @param subcommand subcommand to register as a root command
      */
     public void registerCommand(Subcommand subcommand) {
+        bindPlugin();
         commands.add(subcommand);
+        subcommand.manager = this;
+        completionCache.invalidateAll();
+        completionSessions.clear();
         String label = subcommand.getLabel();
         PluginCommand pluginCommand = Bukkit.getPluginCommand(label);
         if (pluginCommand == null) {
+            reindex();
             Bukkit.getLogger().log(Level.SEVERE,
                     "This root subcommand's label is not registered: '" + label + "'. Check plugin.yml.");
             return;
         }
+        pluginAliases.put(subcommand, List.copyOf(pluginCommand.getAliases()));
+        reindex();
         pluginCommand.setExecutor(this);
         pluginCommand.setTabCompleter(tabCompleter);
     }
 
+    /**
+     * Rebuilds the index of the root commands. Labels take precedence over aliases,
+     * and earlier root commands take precedence over later ones.
+     */
+    synchronized void reindex() {
+        Map<String, Subcommand> map = new HashMap<>();
+        for (Subcommand subcommand : commands) {
+            map.putIfAbsent(subcommand.getLabel().toLowerCase(Locale.ROOT), subcommand);
+        }
+        for (Subcommand subcommand : commands) {
+            subcommand.getAliases().forEach(alias -> map.putIfAbsent(alias.toLowerCase(Locale.ROOT), subcommand));
+            pluginAliases.getOrDefault(subcommand, List.of())
+                    .forEach(alias -> map.putIfAbsent(alias.toLowerCase(Locale.ROOT), subcommand));
+        }
+        index = Map.copyOf(map);
+    }
+
+    /**
+     * Get the root command with the given label or alias, ignoring case.
+     *
+     * @param label label or alias of the root command
+     * @return the root command, or null if there is no such command
+     */
+    @Nullable
+    public Subcommand getCommand(String label) {
+        return index.get(label.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Get the root command that handles the given command.
+     *
+     * @param command command that was executed
+     * @param label   alias of the command that was used
+     * @return the root command, or null if there is no such command
+     */
+    @Nullable
+    Subcommand getCommand(Command command, String label) {
+        Subcommand subcommand = getCommand(label);
+        return subcommand != null ? subcommand : getCommand(command.getName());
+    }
+
+    /**
+     * Get the plugin that owns the commands.
+     *
+     * @return the plugin, or null if the command manager was created without a plugin
+     */
+    @Nullable
+    public Plugin getPlugin() {
+        return plugin;
+    }
+
+    /**
+     * Get the metrics of the commands, recorded per command path.
+     *
+     * @return the command metrics
+     */
+    public CommandMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Get the cache of the tab completions of cacheable arguments.
+     *
+     * @return the completion cache
+     */
+    public CompletionCache getCompletionCache() {
+        return completionCache;
+    }
+
+    /**
+     * Get the per-sender sessions used to narrow down the tab completions of narrowable arguments.
+     *
+     * @return the completion sessions
+     */
+    public CompletionSessions getCompletionSessions() {
+        return completionSessions;
+    }
+
+    /**
+     * Get the limiter of the tab completions of each player. Players that exceed the limit get no completions.
+     * Disabled by default, allows 20 completions per second with bursts of 40.
+     *
+     * @return the completion limiter
+     */
+    public RateLimiter getCompletionLimiter() {
+        return completionLimiter;
+    }
+
+    /**
+     * Get the limiter of the command executions of each player. Players that exceed the limit are warned
+     * instead of executing the command. Disabled by default, allows 5 commands per second with bursts of 10.
+     *
+     * @return the execution limiter
+     */
+    public RateLimiter getExecutionLimiter() {
+        return executionLimiter;
+    }
+
+    /**
+     * Get the queue that executes the asynchronous commands of each sender in order.
+     *
+     * @return the command queue
+     */
+    public CommandQueue getCommandQueue() {
+        return commandQueue;
+    }
+
+    /**
+     * Get the scheduler that runs the jobs of long-running commands.
+     *
+     * @return the job scheduler
+     */
+    public JobScheduler getJobScheduler() {
+        return jobScheduler;
+    }
+
     /**
      * Get the named collection of root subcommands.
      *
@@ -53,22 +240,207 @@ public class CommandManager implements CommandExecutor {
     @Override
     public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command,
                              @NotNull String label, String[] args) {
-        Subcommand subcommand = commands.get(label);
+        bindPlugin();
+        Subcommand subcommand = getCommand(command, label);
         if (subcommand == null) return false;
         CommandStack trace = new CommandStack();
+        long wait = executionLimiter.tryAcquire(sender);
+        if (wait > 0) {
+            handleCommandResult(trace, sender, CommandResult.warning(String.format(
+                    "You are sending commands too quickly. Try again in &l%.1fs", wait / 1e9)));
+            return true;
+        }
+        Timing timing = new Timing();
+        ArgumentHandler argHandler = null;
+        CommandResult result;
         try {
-            ArgumentHandler argHandler = new ArgumentHandler(sender, subcommand, args);
+            argHandler = new ArgumentHandler(sender, subcommand, args);
             trace.push(subcommand);
-            CommandResult result = subcommand.executeIfAllowed(trace, sender, argHandler);
-            handleCommandResult(trace, sender, result);
+            result = subcommand.executeIfAllowed(trace, sender, argHandler);
+        } catch (DeferredCommandException exception) {
+            result = CommandResult.failure(exception.getMessage());
         } catch (CommandException exception) {
-            handleCommandResult(trace, sender, CommandResult.failureWithUsage(exception.getMessage()));
+            result = CommandResult.failureWithUsage(exception.getMessage());
         } catch (Exception exception) {
+            recordExecution(trace, subcommand, argHandler, null, timing);
             handleException(command, args, trace, sender, exception);
+            return true;
         }
+        handleResult(command, args, trace, subcommand, argHandler, sender, result, timing, null);
         return true;
     }
 
+    /**
+     * Records and handles the result of a command, once it completes if it is pending.
+     *
+     * @param command    command that was executed
+     * @param args       arguments passed to the command
+     * @param trace      command stack trace
+     * @param root       root command that was executed
+     * @param argHandler argument handler of the root command
+     * @param sender     sender of the command
+     * @param result     result of the command execution
+     * @param timing     timing of the execution
+     * @param slot       slot of the sender in the command queue, held until the result is handled,
+     *                   or null if the command was not queued
+     */
+    private void handleResult(Command command, String[] args, CommandStack trace, Subcommand root,
+                              ArgumentHandler argHandler, CommandSender sender, CommandResult result, Timing timing,
+                              @Nullable CommandQueue.Slot slot) {
+        CommandResult.Continuation continuation = result.getContinuation();
+        if (continuation != null) {
+            try {
+                result = continuation.resume();
+            } catch (CommandException exception) {
+                result = CommandResult.failureWithUsage(exception.getMessage());
+            } catch (Exception exception) {
+                recordExecution(trace, root, argHandler, null, timing);
+                handleException(command, args, trace, sender, exception);
+                release(slot);
+                return;
+            }
+            handleResult(command, args, trace, root, argHandler, sender, result, timing, slot);
+            return;
+        }
+        CompletableFuture<CommandResult> future = result.getFuture();
+        FanOut<?> fanOut = result.getFanOut();
+        if (fanOut != null) {
+            future = fanOut.start(jobScheduler, plugin, sender,
+                    progress -> sendMessage(sender, CommandResult.CommandResultType.WARNING, progress));
+        }
+        Job job = result.getJob();
+        if (job != null && plugin == null) {
+            // Without a plugin, the job could only run to completion at once and stall the server thread
+            result = CommandResult.failure("Long-running commands can not run without a plugin.");
+        } else if (job != null) {
+            future = jobScheduler.submit(plugin, sender, job,
+                    progress -> sendMessage(sender, CommandResult.CommandResultType.WARNING, progress));
+            if (future == null) {
+                result = CommandResult.warning("Too many long-running commands are running. Please try again later.");
+            }
+        }
+        Supplier<CompletableFuture<?>> task = result.getTask();
+        if (future != null && task != null) {
+            if (slot != null) {
+                // Continued from a queued command, which already holds the slot of the sender
+                start(task, future, slot);
+            } else {
+                CompletableFuture<CommandResult> queued = future;
+                timing.pause();
+                if (commandQueue.submit(sender, acquired -> {
+                    start(task, queued, acquired);
+                    awaitResult(command, args, trace, root, argHandler, sender, queued, timing, acquired);
+                })) {
+                    return;
+                }
+                timing.resume();
+                result = CommandResult.warning("You have too many commands running. Please wait for them to complete.");
+                future = null;
+            }
+        }
+        if (future != null) {
+            timing.pause();
+            awaitResult(command, args, trace, root, argHandler, sender, future, timing, slot);
+            return;
+        }
+        recordExecution(trace, root, argHandler, result.getType(), timing);
+        try {
+            handleCommandResult(trace, sender, result);
+        } catch (Exception exception) {
+            handleException(command, args, trace, sender, exception);
+        } finally {
+            release(slot);
+        }
+    }
+
+    /**
+     * Starts the task of a queued command, and holds the slot of the sender until the execution it started
+     * completes. If the task fails to start, the future of the command completes exceptionally.
+     */
+    private static void start(Supplier<CompletableFuture<?>> task, CompletableFuture<CommandResult> future,
+                              CommandQueue.Slot slot) {
+        try {
+            CompletableFuture<?> execution = task.get();
+            if (execution != null) slot.hold(execution);
+        } catch (RuntimeException exception) {
+            future.completeExceptionally(exception);
+        }
+    }
+
+    /**
+     * Handles the result of a pending command on the server thread once its future completes.
+     */
+    private void awaitResult(Command command, String[] args, CommandStack trace, Subcommand root,
+                             ArgumentHandler argHandler, CommandSender sender, CompletableFuture<CommandResult> future,
+                             Timing timing, @Nullable CommandQueue.Slot slot) {
+        future.whenComplete((completed, throwable) -> runOnServerThread(() ->
+                handlePending(command, args, trace, root, argHandler, sender, completed, throwable, timing, slot)));
+    }
+
+    private static void release(@Nullable CommandQueue.Slot slot) {
+        if (slot != null) slot.release();
+    }
+
+    /**
+     * Handles the completion of a pending command.
+     */
+    private void handlePending(Command command, String[] args, CommandStack trace, Subcommand root,
+                               ArgumentHandler argHandler, CommandSender sender, @Nullable CommandResult result,
+                               @Nullable Throwable throwable, Timing timing, @Nullable CommandQueue.Slot slot) {
+        timing.resume();
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause() : throwable;
+        if (cause == null) {
+            handleResult(command, args, trace, root, argHandler, sender,
+                    result != null ? result : CommandResult.success(), timing, slot);
+        } else if (cause instanceof TimeoutException) {
+            handleResult(command, args, trace, root, argHandler, sender,
+                    CommandResult.failure("This command took too long to complete."), timing, slot);
+        } else if (cause instanceof CommandException exception) {
+            handleResult(command, args, trace, root, argHandler, sender,
+                    CommandResult.failureWithUsage(exception.getMessage()), timing, slot);
+        } else {
+            recordExecution(trace, root, argHandler, null, timing);
+            handleException(command, args, trace, sender,
+                    cause instanceof Exception exception ? exception : new CompletionException(cause));
+            release(slot);
+        }
+    }
+
+    /**
+     * Runs the task on the server thread if the command manager was created with a plugin,
+     * otherwise runs it immediately. Does nothing once the plugin is disabled.
+     *
+     * @param task task to run
+     */
+    private void runOnServerThread(Runnable task) {
+        if (plugin == null) {
+            task.run();
+            return;
+        }
+        if (!plugin.isEnabled()) return;
+        Bukkit.getScheduler().runTask(plugin, task);
+    }
+
+    /**
+     * Records the execution of a command in the metrics.
+     *
+     * @param trace      command stack trace
+     * @param root       root command that was executed
+     * @param argHandler argument handler of the root command, or null if parsing its arguments failed
+     * @param type       type of the result, or null if an unexpected exception occurred
+     * @param timing     timing of the execution
+     */
+    private void recordExecution(CommandStack trace, Subcommand root, @Nullable ArgumentHandler argHandler,
+                                 @Nullable CommandResult.CommandResultType type, Timing timing) {
+        if (!metrics.isEnabled()) return;
+        timing.pause();
+        long total = timing.serverNanos;
+        long parse = argHandler != null ? Math.min(argHandler.getParseNanos(), total) : total;
+        Subcommand subcommand = trace.isEmpty() ? root : trace.peek();
+        metrics.getOrCreate(subcommand).recordExecution(type, parse, total - parse, System.nanoTime() - timing.start);
+    }
+
     /**
      * Handles the result of a command execution.
      *
@@ -117,4 +489,28 @@ public class CommandManager implements CommandExecutor {
             case WARNING -> sender.sendMessage(ChatColor.YELLOW + message);
         }
     }
+
+    /**
+     * Timing of a command execution. Pending commands leave the server thread while they wait,
+     * so only the time spent on the server thread is counted as execution time.
+     */
+    private static final class Timing {
+        private final long start = System.nanoTime();
+        private long resumed = start;
+        private long serverNanos;
+
+        /**
+         * Stops counting the time on the server thread, i.E: while the command is pending.
+         */
+        private void pause() {
+            serverNanos += System.nanoTime() - resumed;
+        }
+
+        /**
+         * Continues counting the time on the server thread, once the pending command completes.
+         */
+        private void resume() {
+            resumed = System.nanoTime();
+        }
+    }
 }
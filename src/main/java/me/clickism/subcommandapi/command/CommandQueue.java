@@ -0,0 +1,249 @@
+package me.clickism.subcommandapi.command;
+
+import me.clickism.subcommandapi.metrics.LatencyHistogram;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Executes the asynchronous commands of each sender one after another, in the order they were sent.
+ * <p>
+ * Each sender has a queue of commands, of which only the first one is executing. The executing command holds
+ * the {@link Slot slot} of the sender until its result is handled, including the continuations and asynchronous
+ * executions it starts, and the next command starts once the slot is released. An execution that outlasts its
+ * result, i.E: one that timed out, keeps the slot until it finished, so a sender never has two commands executing. Queues are striped by sender over
+ * a fixed number of locks, so senders rarely contend with each other.
+ * <p>
+ * The number of commands of a sender and the number of commands of all senders that are queued or executing
+ * are bounded, commands beyond the bounds are rejected instead of queued.
+ */
+public final class CommandQueue {
+    /**
+     * Default maximum number of queued and executing commands of a sender.
+     */
+    public static final int DEFAULT_MAX_DEPTH = 8;
+    /**
+     * Default maximum number of queued and executing commands of all senders.
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 256;
+
+    private static final int STRIPES = 32;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LatencyHistogram waitLatency = new LatencyHistogram();
+    private volatile int maxDepth = DEFAULT_MAX_DEPTH;
+    private volatile int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+
+    /**
+     * Creates a new command queue.
+     */
+    public CommandQueue() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    private static Object keyOf(CommandSender sender) {
+        return sender instanceof Player player ? player.getUniqueId() : sender;
+    }
+
+    private Stripe stripeOf(Object key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    /**
+     * Queues the task of a pending command of the sender, and starts it if no other command of the sender
+     * is executing. The task is given the slot of the sender, which it must release once the command completed.
+     *
+     * @param sender sender of the command
+     * @param task   task that starts the execution of the command
+     * @return true if the command was queued, false if it was rejected
+     */
+    boolean submit(CommandSender sender, Consumer<Slot> task) {
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        Object key = keyOf(sender);
+        Stripe stripe = stripeOf(key);
+        Entry entry = new Entry(task, System.nanoTime());
+        synchronized (stripe) {
+            SenderQueue queue = stripe.queues.computeIfAbsent(key, k -> new SenderQueue());
+            if (queue.depth() >= maxDepth) {
+                inFlight.decrementAndGet();
+                rejected.increment();
+                return false;
+            }
+            if (queue.executing) {
+                queue.waiting.add(entry);
+                queued.increment();
+                return true;
+            }
+            queue.executing = true;
+        }
+        start(key, entry);
+        return true;
+    }
+
+    private void start(Object key, Entry entry) {
+        waitLatency.record(System.nanoTime() - entry.queuedAt);
+        Slot slot = new Slot(key);
+        try {
+            entry.task.accept(slot);
+        } catch (RuntimeException exception) {
+            slot.release();
+            throw exception;
+        }
+    }
+
+    private void complete(Object key) {
+        Stripe stripe = stripeOf(key);
+        Entry next;
+        synchronized (stripe) {
+            SenderQueue queue = stripe.queues.get(key);
+            next = queue.waiting.poll();
+            if (next == null) {
+                stripe.queues.remove(key);
+            } else {
+                queued.decrement();
+            }
+        }
+        inFlight.decrementAndGet();
+        if (next != null) start(key, next);
+    }
+
+    /**
+     * Gets the maximum number of queued and executing commands of a sender.
+     *
+     * @return maximum depth of the queue of a sender
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Sets the maximum number of queued and executing commands of a sender.
+     *
+     * @param maxDepth maximum depth of the queue of a sender
+     */
+    public void setMaxDepth(int maxDepth) {
+        if (maxDepth < 1) throw new IllegalArgumentException("Max depth must be positive: " + maxDepth);
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Gets the maximum number of queued and executing commands of all senders.
+     *
+     * @return maximum number of commands in flight
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Sets the maximum number of queued and executing commands of all senders.
+     *
+     * @param maxInFlight maximum number of commands in flight
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        if (maxInFlight < 1) throw new IllegalArgumentException("Max in flight must be positive: " + maxInFlight);
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Gets the number of queued and executing commands of all senders.
+     *
+     * @return number of commands in flight
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Gets the number of commands that are waiting for a previous command of their sender.
+     *
+     * @return number of queued commands
+     */
+    public long getQueued() {
+        return queued.sum();
+    }
+
+    /**
+     * Gets the number of commands that were rejected because a queue was full.
+     *
+     * @return number of rejected commands
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Gets the time commands waited in the queue before they started executing.
+     *
+     * @return the wait latency
+     */
+    public LatencyHistogram getWaitLatency() {
+        return waitLatency;
+    }
+
+    private static final class Stripe {
+        private final Map<Object, SenderQueue> queues = new HashMap<>();
+    }
+
+    /**
+     * The commands of a sender that are waiting for the executing command.
+     */
+    private static final class SenderQueue {
+        private final ArrayDeque<Entry> waiting = new ArrayDeque<>();
+        private boolean executing;
+
+        private int depth() {
+            return waiting.size() + (executing ? 1 : 0);
+        }
+    }
+
+    private record Entry(Consumer<Slot> task, long queuedAt) {
+    }
+
+    /**
+     * The slot of the executing command of a sender. The next command of the sender starts once the slot
+     * is released.
+     */
+    final class Slot {
+        private final Object key;
+        private final AtomicInteger holds = new AtomicInteger(1);
+
+        private Slot(Object key) {
+            this.key = key;
+        }
+
+        /**
+         * Keeps the slot until the given execution completes, even if the slot is released before.
+         *
+         * @param execution future of the execution
+         */
+        void hold(CompletableFuture<?> execution) {
+            holds.incrementAndGet();
+            execution.whenComplete((result, throwable) -> release());
+        }
+
+        /**
+         * Releases the slot. Must be called once, when the result of the command was handled.
+         */
+        void release() {
+            if (holds.decrementAndGet() == 0) complete(key);
+        }
+    }
+}
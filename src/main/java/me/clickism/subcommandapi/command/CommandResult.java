@@ -1,6 +1,8 @@
 package me.clickism.subcommandapi.command;
 
 import javax.annotation.Nullable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 /**
  * Represents the result of a command execution
@@ -29,12 +31,34 @@ public final class CommandResult {
         WARNING
     }
 
+    @Nullable
     private final CommandResultType type;
     private final String message;
+    @Nullable
+    private final CompletableFuture<CommandResult> future;
+    @Nullable
+    private final Supplier<CompletableFuture<?>> task;
+    @Nullable
+    private final Continuation continuation;
+    @Nullable
+    private final FanOut<?> fanOut;
+    @Nullable
+    private final Job job;
+
+    private CommandResult(@Nullable CommandResultType type, String message) {
+        this(type, message, null, null, null, null, null);
+    }
 
-    private CommandResult(CommandResultType type, String message) {
+    private CommandResult(@Nullable CommandResultType type, String message, @Nullable CompletableFuture<CommandResult> future,
+                          @Nullable Supplier<CompletableFuture<?>> task, @Nullable Continuation continuation, @Nullable FanOut<?> fanOut,
+                          @Nullable Job job) {
         this.type = type;
         this.message = message;
+        this.future = future;
+        this.task = task;
+        this.continuation = continuation;
+        this.fanOut = fanOut;
+        this.job = job;
     }
 
     /**
@@ -113,11 +137,72 @@ public final class CommandResult {
         return new CommandResult(CommandResultType.WARNING, null);
     }
 
+    /**
+     * Create a pending result that is handled once the given future completes.
+     *
+     * @param future future that completes with the result of the command
+     * @return pending result
+     */
+    public static CommandResult pending(CompletableFuture<CommandResult> future) {
+        return new CommandResult(null, null, future, null, null, null, null);
+    }
+
+    /**
+     * Create a pending result whose task has not started yet. The command manager starts the task
+     * through the {@link CommandQueue} of the sender.
+     *
+     * @param future future that the task completes with the result of the command
+     * @param task   task that starts the execution of the command, and returns the future of the execution or
+     *               null if nothing was started. The execution may outlast the result, i.E: if the result timed
+     *               out, and the sender's next command waits for it.
+     * @return pending result
+     */
+    static CommandResult pending(CompletableFuture<CommandResult> future, Supplier<CompletableFuture<?>> task) {
+        return new CommandResult(null, null, future, task, null, null, null);
+    }
+
+    /**
+     * Create a pending result that is continued by the command manager on the server thread,
+     * i.E: to execute a subcommand once its asynchronous arguments are parsed.
+     *
+     * @param continuation continuation that executes the command
+     * @return pending result
+     */
+    static CommandResult resume(Continuation continuation) {
+        return new CommandResult(null, null, null, null, continuation, null, null);
+    }
+
+    /**
+     * Create a pending result that applies an action to each of the given targets, sliced across ticks.
+     *
+     * @param fanOut the fan-out over the targets
+     * @return pending result
+     * @see FanOut
+     */
+    public static CommandResult fanOut(FanOut<?> fanOut) {
+        return new CommandResult(null, null, null, null, null, fanOut, null);
+    }
+
+    /**
+     * Create a pending result that runs the given job on the server thread, a few steps per tick,
+     * until it is done or cancelled. The command fails if the command manager was created without a plugin.
+     *
+     * @param job the job of the command
+     * @return pending result
+     * @see JobScheduler
+     */
+    public static CommandResult job(Job job) {
+        return new CommandResult(null, null, null, null, null, null, job);
+    }
+
     /**
      * Get the type of the command result.
+     * <p>
+     * Pending results have no type, the type of the result they complete with is used instead.
      *
-     * @return the type of the command result
+     * @return the type of the command result, or null if the command result is pending
      */
+    @Nullable
     public CommandResultType getType() {
         return type;
     }
@@ -150,6 +235,65 @@ public final class CommandResult {
         return type == CommandResultType.WARNING;
     }
 
+    /**
+     * Check if the command result is pending.
+     *
+     * @return true if the result of the command is completed asynchronously
+     */
+    public boolean isPending() {
+        return future != null || continuation != null || fanOut != null || job != null;
+    }
+
+    /**
+     * Get the future that completes with the result of a pending command.
+     *
+     * @return the future, or null if the command result is not pending
+     */
+    @Nullable
+    public CompletableFuture<CommandResult> getFuture() {
+        return future;
+    }
+
+    /**
+     * Get the task that starts the execution of a pending command, if it was not started yet.
+     *
+     * @return the task, or null if the command was already started or is not pending
+     */
+    @Nullable
+    Supplier<CompletableFuture<?>> getTask() {
+        return task;
+    }
+
+    /**
+     * Get the continuation of a pending command that is continued on the server thread.
+     *
+     * @return the continuation, or null if the command is not continued
+     */
+    @Nullable
+    Continuation getContinuation() {
+        return continuation;
+    }
+
+    /**
+     * Get the fan-out of a pending command that applies an action to each of its targets.
+     *
+     * @return the fan-out, or null if the command does not fan out
+     */
+    @Nullable
+    FanOut<?> getFanOut() {
+        return fanOut;
+    }
+
+    /**
+     * Get the job of a pending command that runs a few steps per tick.
+     *
+     * @return the job, or null if the command does not run a job
+     */
+    @Nullable
+    Job getJob() {
+        return job;
+    }
+
     /**
      * Get the message of the command result.
      *
@@ -159,4 +303,18 @@ public final class CommandResult {
     public String getMessage() {
         return message;
     }
+
+    /**
+     * Continues the execution of a pending command.
+     */
+    @FunctionalInterface
+    interface Continuation {
+        /**
+         * Continues the execution of the command.
+         *
+         * @return the result of the command
+         * @throws CommandException if the command fails
+         */
+        CommandResult resume() throws CommandException;
+    }
 }
@@ -1,6 +1,7 @@
 package me.clickism.subcommandapi.command;
 
 import java.util.ArrayDeque;
+import java.util.Iterator;
 
 /**
  * Represents a stack of subcommands.
@@ -23,12 +24,20 @@ public class CommandStack extends ArrayDeque<Subcommand> {
      * @return the command path
      */
     public String getPath() {
-        StringBuilder builder = new StringBuilder();
-        for (Subcommand subcommand : this) {
-            builder.insert(0, subcommand.getLabel() + " ");
+        return appendPath(new StringBuilder()).toString();
+    }
+
+    /**
+     * Appends the command path of the stack, from the root command to the last subcommand.
+     */
+    private StringBuilder appendPath(StringBuilder builder) {
+        builder.append('/');
+        Iterator<Subcommand> iterator = descendingIterator();
+        while (iterator.hasNext()) {
+            builder.append(iterator.next().getLabel());
+            if (iterator.hasNext()) builder.append(' ');
         }
-        builder.insert(0, "/");
-        return builder.toString().trim();
+        return builder;
     }
 
     /**
@@ -41,6 +50,9 @@ public class CommandStack extends ArrayDeque<Subcommand> {
     public String buildUsage() {
         Subcommand last = peek();
         if (last == null) return "";
-        return getPath() + " " + last.getUsage();
+        String usage = last.getUsage();
+        return appendPath(new StringBuilder(16 * size() + usage.length()))
+                .append(' ').append(usage)
+                .toString();
     }
 }
@@ -1,13 +1,17 @@
 package me.clickism.subcommandapi.command;
 
+import me.clickism.subcommandapi.argument.Argument;
+import me.clickism.subcommandapi.metrics.CommandMetrics;
+import me.clickism.subcommandapi.util.CompletionIndex;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.jetbrains.annotations.NotNull;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
 
 /**
  * Tab completer for commands.
@@ -28,37 +32,92 @@ public class CommandTabCompleter implements TabCompleter {
     public List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command,
                                       @NotNull String label, String[] args) {
         if (args.length == 0) return null;
-        for (Subcommand subcommand : commandManager.getCommands()) {
-            if (!subcommand.getLabel().equalsIgnoreCase(label)) continue;
-            int index = args.length - 1;
-            return sortCompletion(subcommand.getTabCompletion(index, sender, args), args[index]);
+        commandManager.bindPlugin();
+        Subcommand subcommand = commandManager.getCommand(command, label);
+        if (subcommand == null) return null;
+        if (commandManager.getCompletionLimiter().tryAcquire(sender) > 0) return new ArrayList<>();
+        int index = args.length - 1;
+        CommandMetrics metrics = commandManager.getMetrics();
+        if (!metrics.isEnabled()) {
+            return complete(subcommand, index, sender, new ArgumentView(args));
         }
-        return null;
+        long start = System.nanoTime();
+        List<String> completion = complete(subcommand, index, sender, new ArgumentView(args));
+        metrics.getOrCreate(getCompletedSubcommand(subcommand, args)).recordTabCompletion(System.nanoTime() - start);
+        return completion;
     }
 
+    /**
+     * Gets the sorted completion of the argument at the given index, through the completion cache
+     * if the argument is cacheable, and narrowed down from the previous completion of the sender
+     * if the argument is narrowable.
+     */
     @Nullable
-    private static List<String> sortCompletion(@Nullable List<String> completion, String searchText) {
-        if (completion == null) return null;
-        return completion.stream()
-                .filter(str -> isTabCompletionCandidate(str, searchText))
-                .sorted()
-                .collect(Collectors.toList());
+    private List<String> complete(Subcommand subcommand, int index, CommandSender sender, ArgumentView args) {
+        String token = args.get(index);
+        CompletionCache cache = commandManager.getCompletionCache();
+        CompletionSessions sessions = commandManager.getCompletionSessions();
+        Argument<?> argument = cache.isEnabled() || sessions.isEnabled()
+                ? subcommand.getCompletionArgument(index, args) : null;
+        boolean cacheable = argument != null && cache.isEnabled() && argument.isCompletionCacheable();
+        boolean narrowable = argument != null && sessions.isEnabled() && argument.isCompletionNarrowable();
+        if (!cacheable && !narrowable) {
+            return sortCompletion(subcommand.complete(index, sender, args), token);
+        }
+        boolean op = sender.isOp();
+        long version = argument.getCompletionVersion();
+        List<String> completion = cacheable ? cache.get(argument, token, op) : null;
+        if (completion != null) return new ArrayList<>(completion);
+        if (narrowable) {
+            completion = sessions.narrow(sender, argument, token, op, version);
+        }
+        if (completion == null) {
+            List<String> candidates = subcommand.complete(index, sender, args);
+            completion = sortCompletion(candidates, token);
+            if (completion == null) return null;
+            if (narrowable) {
+                completion = sessions.update(sender, argument, token, op, version, completion,
+                        candidates instanceof CompletionIndex);
+            }
+        }
+        if (cacheable) {
+            completion = cache.put(argument, token, op, version, completion);
+        }
+        // The server may modify the returned list
+        return new ArrayList<>(completion);
     }
 
-    private static boolean isTabCompletionCandidate(String string, String searchText) {
-        if (string == null) return false;
-        return isSubsequence(string.toLowerCase(), searchText.toLowerCase());
+    /**
+     * Gets the subcommand whose argument is being completed.
+     *
+     * @param root root command
+     * @param args arguments of the command
+     * @return the deepest subcommand the arguments lead to
+     */
+    private static Subcommand getCompletedSubcommand(Subcommand root, String[] args) {
+        Subcommand subcommand = root;
+        for (int i = 0; i < args.length - 1 && subcommand instanceof SubcommandGroup group; i++) {
+            Subcommand child = group.getSubcommand(args[i]);
+            if (child == null) break;
+            subcommand = child;
+        }
+        return subcommand;
     }
 
-    private static boolean isSubsequence(String string, String searchText) {
-        int stringIndex = 0;
-        int searchTextIndex = 0;
-        while (stringIndex < string.length() && searchTextIndex < searchText.length()) {
-            if (string.charAt(stringIndex) == searchText.charAt(searchTextIndex)) {
-                searchTextIndex++;
+    @Nullable
+    private static List<String> sortCompletion(@Nullable List<String> completion, String searchText) {
+        if (completion == null) return null;
+        if (completion instanceof CompletionIndex index) {
+            return index.complete(searchText);
+        }
+        String key = searchText.toLowerCase(Locale.ROOT);
+        List<String> list = new ArrayList<>();
+        for (String string : completion) {
+            if (string != null && CompletionIndex.isSubsequence(string.toLowerCase(Locale.ROOT), key)) {
+                list.add(string);
             }
-            stringIndex++;
         }
-        return searchTextIndex == searchText.length();
+        list.sort(null);
+        return list;
     }
 }
@@ -0,0 +1,203 @@
+package me.clickism.subcommandapi.command;
+
+import me.clickism.subcommandapi.argument.Argument;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of the sorted tab completions of {@link Argument#isCompletionCacheable() cacheable arguments},
+ * shared between senders.
+ * <p>
+ * Completions are cached by argument, typed argument and whether the sender is an operator, and the least
+ * recently used completions are evicted once the cache is full. Cached completions are discarded when the
+ * {@link Argument#getCompletionVersion() completion version} of their argument changes.
+ */
+public final class CompletionCache {
+    /**
+     * Default maximum number of cached completions.
+     */
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            if (size() <= maxSize) return false;
+            evictions.increment();
+            return true;
+        }
+    };
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private volatile boolean enabled = true;
+    private volatile int maxSize = DEFAULT_MAX_SIZE;
+
+    /**
+     * Gets the cached completion for the given argument.
+     *
+     * @param argument argument to complete
+     * @param token    the typed argument
+     * @param op       whether the sender is an operator
+     * @return immutable cached completion, or null if it is not cached or outdated
+     */
+    @Nullable
+    public List<String> get(Argument<?> argument, String token, boolean op) {
+        Key key = new Key(argument, token, op);
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && entry.version != argument.getCompletionVersion()) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.completion;
+    }
+
+    /**
+     * Caches the completion for the given argument.
+     *
+     * @param argument   argument that was completed
+     * @param token      the typed argument
+     * @param op         whether the sender is an operator
+     * @param version    completion version of the argument before the completion was computed
+     * @param completion completion to cache, copied
+     * @return immutable cached completion
+     */
+    public List<String> put(Argument<?> argument, String token, boolean op, long version, List<String> completion) {
+        List<String> copy = List.copyOf(completion);
+        synchronized (entries) {
+            entries.put(new Key(argument, token, op), new Entry(version, copy));
+        }
+        return copy;
+    }
+
+    /**
+     * Discards all cached completions.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Whether the cache is enabled. Enabled by default.
+     *
+     * @return true if the cache is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables the cache. Disabling the cache discards all cached completions.
+     *
+     * @param enabled whether the cache should be enabled
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) invalidateAll();
+    }
+
+    /**
+     * Gets the maximum number of cached completions.
+     *
+     * @return maximum number of cached completions
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Sets the maximum number of cached completions. Takes effect with the next cached completion.
+     *
+     * @param maxSize maximum number of cached completions
+     */
+    public void setMaxSize(int maxSize) {
+        if (maxSize < 1) throw new IllegalArgumentException("Max size must be positive: " + maxSize);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the number of cached completions.
+     *
+     * @return number of cached completions
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Gets the number of completions that were found in the cache.
+     *
+     * @return number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of completions that were not found in the cache or were outdated.
+     *
+     * @return number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the number of completions that were evicted because the cache was full.
+     *
+     * @return number of evictions
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Gets the ratio of hits to all lookups.
+     *
+     * @return hit rate between 0 and 1, or 0 if there were no lookups
+     */
+    public double getHitRate() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Resets the statistics of the cache.
+     */
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    private record Key(Argument<?> argument, String token, boolean op) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && argument == key.argument && op == key.op && token.equals(key.token);
+        }
+
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(argument) * 31 + token.hashCode()) * 31 + Boolean.hashCode(op);
+        }
+    }
+
+    private record Entry(long version, List<String> completion) {
+    }
+}
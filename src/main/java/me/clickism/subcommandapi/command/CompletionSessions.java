@@ -0,0 +1,233 @@
+package me.clickism.subcommandapi.command;
+
+import me.clickism.subcommandapi.argument.Argument;
+import me.clickism.subcommandapi.util.CompletionIndex;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the last tab completion of each sender, so the completion of an argument that extends the
+ * previously completed argument, i.E: {@code /warp tes} after {@code /warp te}, is narrowed down from the
+ * previous completion instead of getting and filtering all candidates again.
+ * <p>
+ * Only completions of {@link Argument#isCompletionNarrowable() narrowable arguments} are remembered.
+ * A session is identified by the completed argument, which determines the command path, and is discarded
+ * when the sender quits or once it was not used for the {@link #getIdleTimeout(TimeUnit) idle timeout}.
+ */
+public final class CompletionSessions implements Listener {
+    /**
+     * Default time after which unused sessions are discarded, in milliseconds.
+     */
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final Map<Object, Session> sessions = new ConcurrentHashMap<>();
+    private final LongAdder narrowed = new LongAdder();
+    private volatile boolean enabled = true;
+    private volatile long idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_IDLE_TIMEOUT_MILLIS);
+    private volatile long lastSweep = System.nanoTime();
+
+    /**
+     * Registers the listener that discards the session of players that quit.
+     *
+     * @param plugin plugin to register the listener with
+     */
+    void register(Plugin plugin) {
+        Bukkit.getPluginManager().registerEvents(this, plugin);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    private void onQuit(PlayerQuitEvent event) {
+        remove(event.getPlayer());
+    }
+
+    private static Object keyOf(CommandSender sender) {
+        return sender instanceof Player player ? player.getUniqueId() : sender;
+    }
+
+    /**
+     * Narrows down the previous completion of the sender, if the sender last completed the same argument,
+     * in the same version and with the same operator status, and the token extends the previous token.
+     *
+     * @param sender   sender completing the argument
+     * @param argument argument being completed
+     * @param token    the typed argument
+     * @param op       whether the sender is an operator
+     * @param version  current completion version of the argument
+     * @return immutable narrowed completion, or null if it has to be computed
+     */
+    @Nullable
+    List<String> narrow(CommandSender sender, Argument<?> argument, String token, boolean op, long version) {
+        Object key = keyOf(sender);
+        Session session = sessions.get(key);
+        if (session == null || session.argument != argument || session.op != op || session.version != version) {
+            return null;
+        }
+        long now = System.nanoTime();
+        if (now - session.lastAccess > idleTimeoutNanos) return null;
+        String searchKey = token.toLowerCase(Locale.ROOT);
+        if (!searchKey.startsWith(session.searchKey)) return null;
+        List<String> list = new ArrayList<>(session.completion.size());
+        boolean prefixMatches = session.prefixMatches;
+        if (prefixMatches) {
+            for (String string : session.completion) {
+                if (string.toLowerCase(Locale.ROOT).startsWith(searchKey)) {
+                    list.add(string);
+                }
+            }
+            // Candidates outside the previous completion may contain the token as a subsequence
+            if (list.isEmpty()) return null;
+        } else {
+            for (String string : session.completion) {
+                if (CompletionIndex.isSubsequence(string.toLowerCase(Locale.ROOT), searchKey)) {
+                    list.add(string);
+                }
+            }
+        }
+        List<String> completion = List.copyOf(list);
+        sessions.put(key, new Session(argument, searchKey, op, version, completion, prefixMatches, now));
+        narrowed.increment();
+        return completion;
+    }
+
+    /**
+     * Remembers the computed completion of the sender.
+     *
+     * @param sender      sender that completed the argument
+     * @param argument    argument that was completed
+     * @param token       the typed argument
+     * @param op          whether the sender is an operator
+     * @param version     completion version of the argument before the completion was computed
+     * @param completion  sorted completion
+     * @param prefixFirst whether the completion holds the candidates that start with the token if there are any,
+     *                    like {@link CompletionIndex#complete(String)}, instead of all candidates that contain
+     *                    the token as a subsequence
+     * @return immutable completion
+     */
+    List<String> update(CommandSender sender, Argument<?> argument, String token, boolean op, long version,
+                        List<String> completion, boolean prefixFirst) {
+        long now = System.nanoTime();
+        if (now - lastSweep > idleTimeoutNanos) {
+            lastSweep = now;
+            removeIdle();
+        }
+        String searchKey = token.toLowerCase(Locale.ROOT);
+        List<String> copy = List.copyOf(completion);
+        // Prefix matches are found first, so either all or none of the candidates start with the token
+        boolean prefixMatches = prefixFirst && !copy.isEmpty() && copy.get(0).toLowerCase(Locale.ROOT).startsWith(searchKey);
+        sessions.put(keyOf(sender), new Session(argument, searchKey, op, version, copy, prefixMatches, now));
+        return copy;
+    }
+
+    /**
+     * Discards the session of the sender.
+     *
+     * @param sender sender
+     */
+    public void remove(CommandSender sender) {
+        sessions.remove(keyOf(sender));
+    }
+
+    /**
+     * Discards the sessions that were not used for the idle timeout.
+     */
+    public void removeIdle() {
+        long now = System.nanoTime();
+        long timeout = idleTimeoutNanos;
+        sessions.values().removeIf(session -> now - session.lastAccess > timeout);
+    }
+
+    /**
+     * Discards all sessions.
+     */
+    public void clear() {
+        sessions.clear();
+    }
+
+    /**
+     * Whether sessions are enabled. Enabled by default.
+     *
+     * @return true if sessions are enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables sessions. Disabling sessions discards all sessions.
+     *
+     * @param enabled whether sessions should be enabled
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) clear();
+    }
+
+    /**
+     * Gets the time after which unused sessions are discarded.
+     *
+     * @param unit unit of the returned time
+     * @return idle timeout in the given unit
+     */
+    public long getIdleTimeout(TimeUnit unit) {
+        return unit.convert(idleTimeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Sets the time after which unused sessions are discarded.
+     *
+     * @param timeout idle timeout
+     * @param unit    unit of the timeout
+     */
+    public void setIdleTimeout(long timeout, TimeUnit unit) {
+        if (timeout <= 0) throw new IllegalArgumentException("Idle timeout must be positive: " + timeout);
+        this.idleTimeoutNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * Returns the number of sessions.
+     *
+     * @return number of sessions
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Gets the number of completions that were narrowed down from a previous completion.
+     *
+     * @return number of narrowed completions
+     */
+    public long getNarrowed() {
+        return narrowed.sum();
+    }
+
+    /**
+     * The last completion of a sender.
+     *
+     * @param argument      completed argument
+     * @param searchKey     lower-cased typed argument
+     * @param op            whether the sender was an operator
+     * @param version       completion version of the argument
+     * @param completion    immutable sorted completion
+     * @param prefixMatches whether the completion holds exactly the candidates that start with the token
+     * @param lastAccess    time the session was last used, in nanoseconds
+     */
+    private record Session(Argument<?> argument, String searchKey, boolean op, long version,
+                           List<String> completion, boolean prefixMatches, long lastAccess) {
+    }
+}
@@ -0,0 +1,35 @@
+package me.clickism.subcommandapi.command;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Exception thrown when a command can not be executed yet because it is waiting for a value that
+ * is being resolved asynchronously, i.E: a player lookup.
+ * <p>
+ * If the exception is thrown while the arguments are parsed before the command is executed, the argument
+ * is parsed again once the value is resolved, and the command is executed then. Otherwise, i.E: if the
+ * arguments are parsed lazily, the command fails with the message of the exception.
+ */
+public class DeferredCommandException extends CommandException {
+    private final CompletableFuture<?> future;
+
+    /**
+     * Create a new deferred command exception.
+     *
+     * @param message message to send if the command can not wait for the value
+     * @param future  future that completes once the value is resolved
+     */
+    public DeferredCommandException(String message, CompletableFuture<?> future) {
+        super(message);
+        this.future = future;
+    }
+
+    /**
+     * Get the future that completes once the value is resolved.
+     *
+     * @return the future
+     */
+    public CompletableFuture<?> getFuture() {
+        return future;
+    }
+}
@@ -0,0 +1,248 @@
+package me.clickism.subcommandapi.command;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Work that is done for each target of a command, i.E: for each player selected with {@code @a},
+ * sliced across server ticks so that no tick spends more than the budget on it.
+ * <p>
+ * The command manager processes targets until the budget is spent, and continues in the next ticks through its
+ * {@link JobScheduler}, so all fan-outs and jobs of the manager share the budget of the scheduler per tick, and
+ * fan-outs can be cancelled like jobs. The sender is told about the progress like for jobs, and the results of
+ * all targets are aggregated into a single result once all targets are processed. Players that went offline
+ * before they were processed are skipped. Without a plugin, all targets are processed at once.
+ *
+ * @param <T> type of the targets
+ */
+public final class FanOut<T> {
+    /**
+     * Default time spent on the targets per tick, in microseconds.
+     */
+    public static final long DEFAULT_BUDGET_MICROS = 2000;
+
+    private final Object[] targets;
+    private final TargetAction<T> action;
+    private long budgetNanos = TimeUnit.MICROSECONDS.toNanos(DEFAULT_BUDGET_MICROS);
+    private Function<Summary, CommandResult> summarizer = FanOut::summarize;
+
+    private int index;
+    private int succeeded;
+    private int failed;
+    private int warnings;
+    private int skipped;
+    @Nullable
+    private String firstFailure;
+
+    private FanOut(Collection<? extends T> targets, TargetAction<T> action) {
+        this.targets = targets.toArray();
+        this.action = action;
+    }
+
+    /**
+     * Creates a fan-out of the given action over the given targets.
+     *
+     * @param targets targets, copied
+     * @param action  action to apply to each target
+     * @param <T>     type of the targets
+     * @return fan-out
+     */
+    public static <T> FanOut<T> of(Collection<? extends T> targets, TargetAction<T> action) {
+        return new FanOut<>(targets, action);
+    }
+
+    /**
+     * Sets the most time spent on the targets per tick. At least one target is processed per tick.
+     * <p>
+     * The fan-out gets at most its share of the budget of the {@link JobScheduler} in each tick after the first.
+     *
+     * @param budget budget per tick
+     * @param unit   unit of the budget
+     * @return the fan-out
+     */
+    public FanOut<T> budget(long budget, TimeUnit unit) {
+        if (budget <= 0) throw new IllegalArgumentException("Budget must be positive: " + budget);
+        this.budgetNanos = unit.toNanos(budget);
+        return this;
+    }
+
+    /**
+     * Sets the function that aggregates the results of all targets into the result of the command.
+     * By default, the command succeeds if any target succeeded.
+     *
+     * @param summarizer function that creates the result of the command
+     * @return the fan-out
+     */
+    public FanOut<T> summary(Function<Summary, CommandResult> summarizer) {
+        this.summarizer = summarizer;
+        return this;
+    }
+
+    /**
+     * Creates the pending result of the command, which processes the targets once it is handled by the
+     * command manager.
+     *
+     * @return pending result
+     */
+    public CommandResult toResult() {
+        return CommandResult.fanOut(this);
+    }
+
+    /**
+     * Processes the targets until the budget is spent, and the remaining targets in the ticks of the scheduler
+     * if a plugin is given.
+     *
+     * @param scheduler scheduler to continue the fan-out with
+     * @param plugin    plugin to schedule the ticks with, or null to process all targets at once
+     * @param sender    sender of the command
+     * @param progress  consumer of the progress messages
+     * @return future that completes with the aggregated result
+     */
+    CompletableFuture<CommandResult> start(JobScheduler scheduler, @Nullable Plugin plugin, CommandSender sender,
+                                           Consumer<String> progress) {
+        CompletableFuture<CommandResult> future = new CompletableFuture<>();
+        if (plugin == null) {
+            runSlice(Long.MAX_VALUE, future);
+            return future;
+        }
+        if (runSlice(budgetNanos, future)) return future;
+        return scheduler.continueFanOut(plugin, sender, new Steps(), budgetNanos, progress);
+    }
+
+    /**
+     * Processes targets until the budget is spent.
+     *
+     * @return true if all targets were processed and the future was completed
+     */
+    private boolean runSlice(long budget, CompletableFuture<CommandResult> future) {
+        long start = System.nanoTime();
+        try {
+            while (processNext()) {
+                if (System.nanoTime() - start >= budget) return false;
+            }
+            future.complete(aggregate());
+        } catch (RuntimeException exception) {
+            future.completeExceptionally(exception);
+        }
+        return true;
+    }
+
+    /**
+     * Applies the action to the next target, skipping players that went offline.
+     *
+     * @return true if there are more targets to process
+     */
+    @SuppressWarnings("unchecked")
+    private boolean processNext() {
+        while (index < targets.length) {
+            T target = (T) targets[index++];
+            if (target instanceof Player player && !player.isOnline()) {
+                skipped++;
+                continue;
+            }
+            try {
+                CommandResult result = action.apply(target);
+                if (result == null || result.isSuccess()) {
+                    succeeded++;
+                } else if (result.isWarning()) {
+                    warnings++;
+                } else {
+                    fail(result.getMessage());
+                }
+            } catch (CommandException exception) {
+                fail(exception.getMessage());
+            }
+            break;
+        }
+        return index < targets.length;
+    }
+
+    private CommandResult aggregate() {
+        return summarizer.apply(new Summary(targets.length, succeeded, failed, warnings, skipped, firstFailure));
+    }
+
+    private void fail(@Nullable String message) {
+        failed++;
+        if (firstFailure == null) firstFailure = message;
+    }
+
+    private static CommandResult summarize(Summary summary) {
+        if (summary.total() > 0 && summary.succeeded() == 0 && summary.warnings() == 0) {
+            if (summary.failed() == 0) {
+                return CommandResult.warning("All " + summary.total() + " targets went offline.");
+            }
+            return CommandResult.failure(summary.firstFailure() != null
+                    ? summary.firstFailure()
+                    : "Failed for all " + summary.total() + " targets.");
+        }
+        String message = "Done for " + summary.succeeded() + "/" + summary.total() + " targets.";
+        if (summary.skipped() > 0) {
+            message += " " + summary.skipped() + " went offline.";
+        }
+        if (summary.failed() > 0 || summary.warnings() > 0) {
+            return CommandResult.warning(message + " " + (summary.failed() + summary.warnings()) + " did not succeed"
+                                         + (summary.firstFailure() != null ? ": &l" + summary.firstFailure() : "."));
+        }
+        return CommandResult.success(message);
+    }
+
+    /**
+     * The remaining targets of the fan-out as a job, processing a target per step.
+     */
+    private final class Steps implements Job {
+        @Override
+        public boolean step() {
+            return processNext();
+        }
+
+        @Override
+        public String getProgress() {
+            return "Processed " + index + "/" + targets.length + "...";
+        }
+
+        @Override
+        public CommandResult getResult() {
+            return aggregate();
+        }
+    }
+
+    /**
+     * The aggregated results of all targets.
+     *
+     * @param total        number of targets
+     * @param succeeded    number of targets the action succeeded for
+     * @param failed       number of targets the action failed for
+     * @param warnings     number of targets the action warned for
+     * @param skipped      number of players that went offline before they were processed
+     * @param firstFailure message of the first failure, or null if there was none
+     */
+    public record Summary(int total, int succeeded, int failed, int warnings, int skipped,
+                          @Nullable String firstFailure) {
+    }
+
+    /**
+     * An action applied to a target.
+     *
+     * @param <T> type of the target
+     */
+    @FunctionalInterface
+    public interface TargetAction<T> {
+        /**
+         * Applies the action to the target.
+         *
+         * @param target target
+         * @return result for the target, or null if it succeeded without a message
+         * @throws CommandException if the action failed for the target
+         */
+        @Nullable
+        CommandResult apply(T target) throws CommandException;
+    }
+}
@@ -0,0 +1,22 @@
+package me.clickism.subcommandapi.command;
+
+/**
+ * Exception thrown when a command fails because of invalid input from the sender, i.E: a typo in an argument.
+ * <p>
+ * Invalid input is common and expected, so this exception does not capture a stack trace.
+ */
+public class InvalidInputException extends CommandException {
+    /**
+     * Create a new invalid input exception with the given message.
+     *
+     * @param message the message
+     */
+    public InvalidInputException(String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
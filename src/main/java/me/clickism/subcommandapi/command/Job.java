@@ -0,0 +1,46 @@
+package me.clickism.subcommandapi.command;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A long-running command that is done in small steps, i.E: purging old records or scanning a region.
+ * <p>
+ * Return {@link CommandResult#job(Job)} from a subcommand to run the job. The {@link JobScheduler} of the
+ * command manager calls {@link #step()} on the server thread until the job is done, spending at most its
+ * budget per tick on all running jobs. Jobs can be cancelled, i.E: with a {@link CancelJobsSubcommand}.
+ */
+@FunctionalInterface
+public interface Job {
+    /**
+     * Does the next step of the job. Called on the server thread. A step should take much less than a tick.
+     *
+     * @return true if the job has more steps to do, false if it is done
+     * @throws CommandException if the job fails
+     */
+    boolean step() throws CommandException;
+
+    /**
+     * Gets the progress of the job, sent to the sender of the command while the job is running.
+     *
+     * @return the progress message, i.E: "Scanned 1200/5000 chunks.", or null to send no progress
+     */
+    @Nullable
+    default String getProgress() {
+        return null;
+    }
+
+    /**
+     * Gets the result of the command once the job is done.
+     *
+     * @return the result of the command
+     */
+    default CommandResult getResult() {
+        return CommandResult.success();
+    }
+
+    /**
+     * Called on the server thread when the job is cancelled before it is done, i.E: to release resources.
+     */
+    default void onCancel() {
+    }
+}
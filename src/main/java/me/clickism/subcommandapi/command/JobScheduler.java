@@ -0,0 +1,371 @@
+package me.clickism.subcommandapi.command;
+
+import me.clickism.subcommandapi.util.PluginBinding;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs the {@link Job jobs} of long-running commands on the server thread, a few steps per tick.
+ * <p>
+ * All running jobs share the budget of a tick: each job steps until its share of the remaining budget is
+ * spent, and at least once per tick. The number of jobs that run at once on the server, across the schedulers
+ * of all command managers, is bounded, commands beyond the bound are rejected instead of started. The bound is
+ * kept by this class, so it only covers the command managers that use the same copy of the library, i.E: the
+ * managers of one plugin that shades it. Plugins that shade their own copy have their own bound. Senders are
+ * told about the progress of their jobs at most once per progress interval, and the jobs of players that quit
+ * are cancelled. Once the plugin of the scheduler is disabled, its jobs are cancelled.
+ * <p>
+ * The {@link FanOut fan-outs} of the command manager are continued as jobs of its scheduler as well, so they
+ * share the budget of a tick with each other and with the jobs. They are not bounded by the maximum number of
+ * jobs, as they were already started when they are continued.
+ * <p>
+ * Jobs need a plugin to schedule their steps with, command managers without a plugin reject them instead of
+ * running them to completion at once. The scheduler is used on the server thread.
+ */
+public final class JobScheduler {
+    /**
+     * Default maximum number of jobs that run at once on the server.
+     */
+    public static final int DEFAULT_MAX_JOBS = 4;
+    /**
+     * Default time spent on all running jobs per tick, in microseconds.
+     */
+    public static final long DEFAULT_BUDGET_MICROS = 5000;
+    /**
+     * Default minimum time between two progress messages of a job, in milliseconds.
+     */
+    public static final long DEFAULT_PROGRESS_INTERVAL_MILLIS = 2000;
+
+    private static final AtomicInteger SERVER_RUNNING = new AtomicInteger();
+    private static volatile int maxJobs = DEFAULT_MAX_JOBS;
+
+    private final List<RunningJob> jobs = new ArrayList<>();
+    private final PluginBinding binding = new PluginBinding(null, this::release);
+    @Nullable
+    private BukkitTask task;
+    private volatile long budgetNanos = TimeUnit.MICROSECONDS.toNanos(DEFAULT_BUDGET_MICROS);
+    private volatile long progressIntervalNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_PROGRESS_INTERVAL_MILLIS);
+    private long completed;
+    private long cancelled;
+    private long rejected;
+
+    private static Object keyOf(CommandSender sender) {
+        return sender instanceof Player player ? player.getUniqueId() : sender;
+    }
+
+    /**
+     * Starts the job of a command of the sender.
+     *
+     * @param plugin   plugin to schedule the steps with
+     * @param sender   sender of the command
+     * @param job      job of the command
+     * @param progress consumer of the progress messages
+     * @return future that completes with the result of the command, or null if too many jobs are running
+     * on the server
+     */
+    @Nullable
+    CompletableFuture<CommandResult> submit(Plugin plugin, CommandSender sender, Job job,
+                                            Consumer<String> progress) {
+        RunningJob running = new RunningJob(sender, job, progress, System.nanoTime(), true, Long.MAX_VALUE);
+        if (SERVER_RUNNING.incrementAndGet() > maxJobs) {
+            SERVER_RUNNING.decrementAndGet();
+            rejected++;
+            return null;
+        }
+        schedule(plugin, running);
+        return running.future;
+    }
+
+    /**
+     * Continues the fan-out of a command of the sender in the next ticks, sharing their budget with the
+     * running jobs and fan-outs.
+     *
+     * @param plugin   plugin to schedule the steps with
+     * @param sender   sender of the command
+     * @param steps    remaining targets of the fan-out, one per step
+     * @param maxShare maximum time spent on the fan-out per tick in nanoseconds
+     * @param progress consumer of the progress messages
+     * @return future that completes with the result of the command
+     */
+    CompletableFuture<CommandResult> continueFanOut(Plugin plugin, CommandSender sender, Job steps, long maxShare,
+                                                    Consumer<String> progress) {
+        RunningJob running = new RunningJob(sender, steps, progress, System.nanoTime(), false, maxShare);
+        schedule(plugin, running);
+        return running.future;
+    }
+
+    private void schedule(Plugin plugin, RunningJob running) {
+        jobs.add(running);
+        if (task == null) {
+            binding.bind(plugin);
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1, 1);
+        }
+    }
+
+    /**
+     * Cancels the running jobs and forgets the task once the plugin is disabled,
+     * so a new task is started for the next job.
+     */
+    private void release() {
+        cancelAll();
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    private void tick() {
+        long now = System.nanoTime();
+        long deadline = now + budgetNanos;
+        long interval = progressIntervalNanos;
+        int i = 0;
+        while (i < jobs.size()) {
+            RunningJob running = jobs.get(i);
+            if (running.sender instanceof Player player && !player.isOnline()) {
+                jobs.remove(i);
+                cancel(running, "Cancelled, the sender left.");
+                continue;
+            }
+            long share = Math.min(running.maxShare, (deadline - System.nanoTime()) / (jobs.size() - i));
+            if (!running.run(share)) {
+                jobs.remove(i);
+                if (running.counted) SERVER_RUNNING.decrementAndGet();
+                completed++;
+                continue;
+            }
+            running.reportProgress(now, interval);
+            i++;
+        }
+        if (jobs.isEmpty() && task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Cancels the running jobs of the sender. Their commands complete with a warning.
+     *
+     * @param sender sender whose jobs to cancel
+     * @return number of cancelled jobs
+     */
+    public int cancel(CommandSender sender) {
+        Object key = keyOf(sender);
+        List<RunningJob> matching = new ArrayList<>();
+        jobs.removeIf(running -> running.key.equals(key) && matching.add(running));
+        matching.forEach(running -> cancel(running, "This command was cancelled."));
+        return matching.size();
+    }
+
+    /**
+     * Cancels all running jobs. Their commands complete with a warning.
+     *
+     * @return number of cancelled jobs
+     */
+    public int cancelAll() {
+        List<RunningJob> all = new ArrayList<>(jobs);
+        jobs.clear();
+        all.forEach(running -> cancel(running, "This command was cancelled."));
+        return all.size();
+    }
+
+    private void cancel(RunningJob running, String message) {
+        if (running.counted) SERVER_RUNNING.decrementAndGet();
+        cancelled++;
+        try {
+            running.job.onCancel();
+        } catch (RuntimeException exception) {
+            running.future.completeExceptionally(exception);
+            return;
+        }
+        running.future.complete(CommandResult.warning(message));
+    }
+
+    /**
+     * Gets the number of running jobs of this scheduler, including the fan-outs it continues.
+     *
+     * @return number of running jobs
+     */
+    public int getRunning() {
+        return jobs.size();
+    }
+
+    /**
+     * Gets the number of running jobs of the sender.
+     *
+     * @param sender sender of the jobs
+     * @return number of running jobs of the sender
+     */
+    public int getRunning(CommandSender sender) {
+        Object key = keyOf(sender);
+        int count = 0;
+        for (RunningJob running : jobs) {
+            if (running.key.equals(key)) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of running jobs of all schedulers on the server that use this copy of the library.
+     *
+     * @return number of running jobs on the server
+     */
+    public static int getServerRunning() {
+        return SERVER_RUNNING.get();
+    }
+
+    /**
+     * Gets the maximum number of jobs that run at once on the server, shared by all schedulers that use
+     * this copy of the library.
+     *
+     * @return maximum number of running jobs on the server
+     */
+    public static int getMaxJobs() {
+        return maxJobs;
+    }
+
+    /**
+     * Sets the maximum number of jobs that run at once on the server, shared by all schedulers that use
+     * this copy of the library. Running jobs are not affected.
+     *
+     * @param maxJobs maximum number of running jobs on the server
+     */
+    public static void setMaxJobs(int maxJobs) {
+        if (maxJobs < 1) throw new IllegalArgumentException("Max jobs must be positive: " + maxJobs);
+        JobScheduler.maxJobs = maxJobs;
+    }
+
+    /**
+     * Gets the time spent on all running jobs per tick.
+     *
+     * @param unit the unit of the returned budget
+     * @return the budget in the given unit
+     */
+    public long getBudget(TimeUnit unit) {
+        return unit.convert(budgetNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Sets the time spent on all running jobs per tick. Each job steps at least once per tick.
+     *
+     * @param budget budget per tick
+     * @param unit   unit of the budget
+     */
+    public void setBudget(long budget, TimeUnit unit) {
+        if (budget <= 0) throw new IllegalArgumentException("Budget must be positive: " + budget);
+        this.budgetNanos = unit.toNanos(budget);
+    }
+
+    /**
+     * Gets the minimum time between two progress messages of a job.
+     *
+     * @param unit the unit of the returned interval
+     * @return the progress interval in the given unit
+     */
+    public long getProgressInterval(TimeUnit unit) {
+        return unit.convert(progressIntervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Sets the minimum time between two progress messages of a job.
+     *
+     * @param interval progress interval
+     * @param unit     unit of the interval
+     */
+    public void setProgressInterval(long interval, TimeUnit unit) {
+        if (interval <= 0) throw new IllegalArgumentException("Progress interval must be positive: " + interval);
+        this.progressIntervalNanos = unit.toNanos(interval);
+    }
+
+    /**
+     * Gets the number of jobs that were done or failed.
+     *
+     * @return number of completed jobs
+     */
+    public long getCompleted() {
+        return completed;
+    }
+
+    /**
+     * Gets the number of jobs that were cancelled.
+     *
+     * @return number of cancelled jobs
+     */
+    public long getCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Gets the number of jobs that were rejected because too many jobs were running on the server.
+     *
+     * @return number of rejected jobs
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * A job that is running, with the sender and the future of its command.
+     */
+    private static final class RunningJob {
+        private final CommandSender sender;
+        private final Object key;
+        private final Job job;
+        private final Consumer<String> progress;
+        private final CompletableFuture<CommandResult> future = new CompletableFuture<>();
+        /**
+         * Whether the job counts towards the maximum number of jobs on the server, false for fan-outs.
+         */
+        private final boolean counted;
+        private final long maxShare;
+        private long lastProgress;
+
+        private RunningJob(CommandSender sender, Job job, Consumer<String> progress, long startedAt,
+                           boolean counted, long maxShare) {
+            this.sender = sender;
+            this.key = keyOf(sender);
+            this.job = job;
+            this.progress = progress;
+            this.lastProgress = startedAt;
+            this.counted = counted;
+            this.maxShare = maxShare;
+        }
+
+        /**
+         * Steps the job until the budget is spent, at least once.
+         *
+         * @return true if the job has more steps to do, false if it is done and the future was completed
+         */
+        private boolean run(long budget) {
+            long start = System.nanoTime();
+            try {
+                boolean more;
+                do {
+                    more = job.step();
+                } while (more && System.nanoTime() - start < budget);
+                if (!more) future.complete(job.getResult());
+                return more;
+            } catch (RuntimeException exception) {
+                future.completeExceptionally(exception);
+                return false;
+            }
+        }
+
+        private void reportProgress(long now, long interval) {
+            if (now - lastProgress < interval) return;
+            lastProgress = now;
+            String message = job.getProgress();
+            if (message != null) progress.accept(message);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package me.clickism.subcommandapi.command;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits how often each player can send requests, i.E: tab completions or commands.
+ * <p>
+ * Each player has a token bucket that holds up to the burst of requests and refills at the rate of the limiter.
+ * The bucket is implemented with the generic cell rate algorithm, so the state of a player is a single
+ * theoretical arrival time that is updated with a compare-and-set, without locking. Other senders than
+ * players are never limited.
+ * <p>
+ * Limiters are disabled by default.
+ */
+public final class RateLimiter {
+    private static final int SWEEP_THRESHOLD = 1024;
+
+    private final Map<UUID, AtomicLong> arrivals = new ConcurrentHashMap<>();
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private volatile boolean enabled;
+    private volatile long intervalNanos;
+    private volatile long toleranceNanos;
+
+    /**
+     * Creates a new, disabled rate limiter.
+     *
+     * @param permitsPerSecond number of requests a player can send per second on average
+     * @param burst            number of requests a player can send at once
+     */
+    public RateLimiter(double permitsPerSecond, int burst) {
+        setRate(permitsPerSecond, burst);
+    }
+
+    /**
+     * Sets the rate of the limiter.
+     *
+     * @param permitsPerSecond number of requests a player can send per second on average
+     * @param burst            number of requests a player can send at once
+     */
+    public void setRate(double permitsPerSecond, int burst) {
+        if (!(permitsPerSecond > 0)) {
+            throw new IllegalArgumentException("Permits per second must be positive: " + permitsPerSecond);
+        }
+        if (burst < 1) throw new IllegalArgumentException("Burst must be positive: " + burst);
+        long interval = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.intervalNanos = interval;
+        this.toleranceNanos = interval * (burst - 1);
+    }
+
+    /**
+     * Tries to acquire a permit for a request of the sender.
+     *
+     * @param sender sender of the request
+     * @return 0 if the request is allowed, otherwise the nanoseconds until the next request of the sender is allowed
+     */
+    public long tryAcquire(CommandSender sender) {
+        if (!enabled || !(sender instanceof Player player)) return 0;
+        long now = System.nanoTime();
+        UUID uuid = player.getUniqueId();
+        AtomicLong arrival = arrivals.get(uuid);
+        if (arrival == null) {
+            if (arrivals.size() >= SWEEP_THRESHOLD) removeIdle();
+            arrival = arrivals.computeIfAbsent(uuid, key -> new AtomicLong(now));
+        }
+        long interval = intervalNanos;
+        long tolerance = toleranceNanos;
+        while (true) {
+            long current = arrival.get();
+            long start = current - now > 0 ? current : now;
+            long wait = start - now - tolerance;
+            if (wait > 0) {
+                rejected.increment();
+                return wait;
+            }
+            if (arrival.compareAndSet(current, start + interval)) {
+                allowed.increment();
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Discards the state of the sender, i.E: when the sender quits.
+     *
+     * @param sender sender
+     */
+    public void remove(CommandSender sender) {
+        if (sender instanceof Player player) {
+            arrivals.remove(player.getUniqueId());
+        }
+    }
+
+    /**
+     * Discards the state of the players whose buckets are full again.
+     */
+    public void removeIdle() {
+        long now = System.nanoTime();
+        arrivals.values().removeIf(arrival -> arrival.get() - now <= 0);
+    }
+
+    /**
+     * Whether the limiter is enabled. Disabled by default.
+     *
+     * @return true if the limiter is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables the limiter. Disabling the limiter discards the state of all players.
+     *
+     * @param enabled whether the limiter should be enabled
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) arrivals.clear();
+    }
+
+    /**
+     * Gets the number of requests that were allowed while the limiter was enabled.
+     *
+     * @return number of allowed requests
+     */
+    public long getAllowed() {
+        return allowed.sum();
+    }
+
+    /**
+     * Gets the number of requests that were rejected.
+     *
+     * @return number of rejected requests
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Resets the statistics of the limiter.
+     */
+    public void resetStatistics() {
+        allowed.reset();
+        rejected.reset();
+    }
+}
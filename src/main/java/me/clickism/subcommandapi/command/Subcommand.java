@@ -3,15 +3,55 @@ package me.clickism.subcommandapi.command;
 import me.clickism.subcommandapi.argument.Argument;
 import me.clickism.subcommandapi.util.Named;
 import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
  * Represents a subcommand.
  */
 public abstract class Subcommand implements Named {
+    private static final ClassValue<Boolean> CUSTOM_TAB_COMPLETION = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                Class<?> declaringClass = type.getMethod("getTabCompletion",
+                        int.class, CommandSender.class, ArgumentView.class).getDeclaringClass();
+                return LEGACY_TAB_COMPLETION.get(type)
+                       || (declaringClass != Subcommand.class && declaringClass != SubcommandGroup.class);
+            } catch (NoSuchMethodException exception) {
+                return true;
+            }
+        }
+    };
+    private static final ClassValue<Boolean> LEGACY_TAB_COMPLETION = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("getTabCompletion", int.class, CommandSender.class, String[].class)
+                               .getDeclaringClass() != Subcommand.class;
+            } catch (NoSuchMethodException exception) {
+                return false;
+            }
+        }
+    };
+    private static final ClassValue<Boolean> CUSTOM_ACCESS = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("canExecute", CommandSender.class).getDeclaringClass() != Subcommand.class;
+            } catch (NoSuchMethodException exception) {
+                return true;
+            }
+        }
+    };
+
     /**
      * The label of the subcommand.
      */
@@ -22,8 +62,33 @@ public abstract class Subcommand implements Named {
      */
     protected boolean requiresOp;
 
+    /**
+     * Whether the arguments of the subcommand are parsed lazily.
+     */
+    protected boolean lazyArguments;
+
+    /**
+     * The permission required to execute the subcommand, or null if no permission is required.
+     */
+    @Nullable
+    protected String permission;
+
     private final List<Argument<?>> arguments = new ArrayList<>();
     private final List<String> flags = new ArrayList<>();
+    private final List<String> aliases = new ArrayList<>();
+    @Nullable
+    private volatile String usage;
+    private final int nodeId = VisibilityCache.nextNodeId();
+
+    /**
+     * The group this subcommand was added to, notified when the label or aliases change.
+     */
+    SubcommandGroup parent;
+    /**
+     * The command manager this subcommand was registered to as a root command, notified when the label or
+     * aliases change.
+     */
+    CommandManager manager;
 
     /**
      * Create a new subcommand with the given label.
@@ -47,11 +112,75 @@ public abstract class Subcommand implements Named {
 
     public Subcommand setRequiresOp() {
         this.requiresOp = true;
+        VisibilityCache.getInstance().invalidateAll();
+        if (parent != null) parent.reindex();
+        return this;
+    }
+
+    /**
+     * Require a permission to execute the subcommand, in addition to the operator requirement.
+     * Subcommands the sender does not have the permission for are not tab completed.
+     *
+     * @param permission the permission, or null to not require a permission
+     * @return the subcommand
+     */
+    public Subcommand setPermission(@Nullable String permission) {
+        this.permission = permission;
+        VisibilityCache.getInstance().invalidateAll();
+        if (parent != null) parent.reindex();
+        return this;
+    }
+
+    /**
+     * Get the permission required to execute the subcommand.
+     *
+     * @return the permission, or null if no permission is required
+     */
+    @Nullable
+    public String getPermission() {
+        return permission;
+    }
+
+    /**
+     * Parse the arguments of the subcommand lazily.
+     * <p>
+     * The number of arguments is still validated before the subcommand is executed, but each argument
+     * is only parsed when its value is first requested from the argument handler, and the parsed value
+     * is reused afterwards. Invalid arguments fail the command when their value is requested.
+     *
+     * @return the subcommand
+     */
+    public Subcommand setLazyArguments() {
+        this.lazyArguments = true;
         return this;
     }
 
+    /**
+     * Whether the arguments of the subcommand are parsed lazily.
+     *
+     * @return true if the arguments are only parsed when their value is requested
+     */
+    public boolean isLazyArguments() {
+        return lazyArguments;
+    }
+
     public Subcommand setLabel(String label) {
         this.label = label;
+        if (parent != null) parent.reindex();
+        if (manager != null) manager.reindex();
+        return this;
+    }
+
+    /**
+     * Add an alias to the subcommand. Aliases are matched case-insensitively, like labels.
+     *
+     * @param alias the alias to add
+     * @return the subcommand
+     */
+    public Subcommand addAlias(String alias) {
+        aliases.add(alias);
+        if (parent != null) parent.reindex();
+        if (manager != null) manager.reindex();
         return this;
     }
 
@@ -61,7 +190,9 @@ public abstract class Subcommand implements Named {
      * @param argument the argument to add
      */
     protected void addArgument(Argument<?> argument) {
+        argument.assignSlot(arguments.size());
         arguments.add(argument);
+        invalidateUsage();
     }
 
     /**
@@ -71,6 +202,7 @@ public abstract class Subcommand implements Named {
      */
     protected void addFlag(String flag) {
         flags.add(flag);
+        invalidateUsage();
     }
 
     /**
@@ -82,6 +214,19 @@ public abstract class Subcommand implements Named {
         return label;
     }
 
+    /**
+     * Get the command path of the subcommand, from its root command to the subcommand.
+     * <p>
+     * i.E: /command subcommand
+     *
+     * @return the command path of the subcommand
+     */
+    public String getPath() {
+        SubcommandGroup group = parent;
+        if (group == null) return "/" + label;
+        return group.getPath() + " " + label;
+    }
+
     @Override
     public String getName() {
         return getLabel();
@@ -96,6 +241,15 @@ public abstract class Subcommand implements Named {
         return arguments;
     }
 
+    /**
+     * Get the aliases of the subcommand.
+     *
+     * @return the aliases of the subcommand
+     */
+    public List<String> getAliases() {
+        return Collections.unmodifiableList(aliases);
+    }
+
     /**
      * Get the flags of the subcommand.
      *
@@ -107,17 +261,44 @@ public abstract class Subcommand implements Named {
 
     /**
      * Get the usage of the subcommand.
+     * <p>
+     * The usage is built once from the hints of the arguments and the flags, and rebuilt after
+     * arguments or flags are added. If the hint of an argument is not {@link Argument#isHintCacheable() cacheable},
+     * the usage is built every time.
      *
      * @return the usage of the subcommand
      */
     public String getUsage() {
-        String arguments = getArguments().stream()
-                .map(Argument::getHint)
-                .collect(Collectors.joining(" "));
-        String flags = getFlags().stream()
-                .map(flag -> "(--" + flag + ")")
-                .collect(Collectors.joining(" "));
-        return arguments + " " + flags;
+        String usage = this.usage;
+        if (usage != null) return usage;
+        List<Argument<?>> arguments = getArguments();
+        usage = buildUsage(arguments);
+        for (Argument<?> argument : arguments) {
+            if (!argument.isHintCacheable()) return usage;
+        }
+        this.usage = usage;
+        return usage;
+    }
+
+    private String buildUsage(List<Argument<?>> arguments) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < arguments.size(); i++) {
+            if (i > 0) builder.append(' ');
+            builder.append(arguments.get(i).getHint());
+        }
+        builder.append(' ');
+        for (int i = 0; i < flags.size(); i++) {
+            if (i > 0) builder.append(' ');
+            builder.append("(--").append(flags.get(i)).append(')');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Discards the cached usage of the subcommand. Call when the hints of its arguments change.
+     */
+    protected void invalidateUsage() {
+        usage = null;
     }
 
     /**
@@ -127,10 +308,26 @@ public abstract class Subcommand implements Named {
      * @param sender the sender of the command
      * @param args   the (relevant) arguments of the command
      * @return the tab completion for the subcommand
+     * @deprecated override and call {@link #getTabCompletion(int, CommandSender, ArgumentView)} instead,
+     * which avoids copying the arguments for nested subcommands. Overrides of this method are still called
+     * to complete the subcommand.
      */
+    @Deprecated
     public List<String> getTabCompletion(int index, CommandSender sender, String[] args) {
+        return getTabCompletion(index, sender, new ArgumentView(args));
+    }
+
+    /**
+     * Get the tab completion for the subcommand.
+     *
+     * @param index  the current argument index of the cursor
+     * @param sender the sender of the command
+     * @param args   the (relevant) arguments of the command
+     * @return the tab completion for the subcommand
+     */
+    public List<String> getTabCompletion(int index, CommandSender sender, ArgumentView args) {
         List<Argument<?>> arguments = getArguments();
-        String arg = args[index];
+        String arg = args.get(index);
         if (index >= arguments.size() || (arg.startsWith("--") && !flags.isEmpty())) {
             return flags.stream()
                     .map(flag -> "--" + flag)
@@ -139,10 +336,81 @@ public abstract class Subcommand implements Named {
         return arguments.get(index).getTabCompletion(sender, arg);
     }
 
+    /**
+     * Completes the subcommand, through {@link #getTabCompletion(int, CommandSender, String[])} if a subclass
+     * overrides it, otherwise through {@link #getTabCompletion(int, CommandSender, ArgumentView)}.
+     *
+     * @param index  the current argument index of the cursor
+     * @param sender the sender of the command
+     * @param args   the (relevant) arguments of the command
+     * @return the tab completion for the subcommand
+     */
+    @SuppressWarnings("deprecation")
+    final List<String> complete(int index, CommandSender sender, ArgumentView args) {
+        if (LEGACY_TAB_COMPLETION.get(getClass())) {
+            return getTabCompletion(index, sender, args.toArray());
+        }
+        return getTabCompletion(index, sender, args);
+    }
+
+    /**
+     * Gets the argument that completes the given index, used to cache tab completions.
+     *
+     * @param index the current argument index of the cursor
+     * @param args  the (relevant) arguments of the command
+     * @return the argument, or null if the index is completed with flags or by a custom tab completion
+     */
+    @Nullable
+    public Argument<?> getCompletionArgument(int index, ArgumentView args) {
+        if (hasCustomTabCompletion()) return null;
+        List<Argument<?>> arguments = getArguments();
+        if (index >= arguments.size() || (args.get(index).startsWith("--") && !flags.isEmpty())) {
+            return null;
+        }
+        return arguments.get(index);
+    }
+
+    /**
+     * Whether the tab completion of the subcommand is overridden.
+     */
+    boolean hasCustomTabCompletion() {
+        return CUSTOM_TAB_COMPLETION.get(getClass());
+    }
+
+    /**
+     * Whether access to the subcommand is determined only by the operator status of the sender,
+     * that is, {@link #canExecute(CommandSender)} is not overridden and no permission is required.
+     *
+     * @return true if access is determined only by the operator status of the sender
+     */
+    public boolean isAccessDeterminedByOp() {
+        return permission == null && isAccessDeterminedByPermissions();
+    }
+
+    /**
+     * Whether access to the subcommand is determined only by the operator status and the permissions
+     * of the sender, that is, {@link #canExecute(CommandSender)} is not overridden.
+     *
+     * @return true if access is determined only by the operator status and the permissions of the sender
+     */
+    public boolean isAccessDeterminedByPermissions() {
+        return !CUSTOM_ACCESS.get(getClass());
+    }
+
+    /**
+     * Gets the unique id of the subcommand in the {@link VisibilityCache}.
+     */
+    int getNodeId() {
+        return nodeId;
+    }
+
     /**
      * Execute the subcommand with the given arguments if the sender has the required permissions.
      * <p>
-     * Only relevant arguments are passed.
+     * Only relevant arguments are passed. If asynchronous arguments are still being parsed, returns a
+     * pending result, and the subcommand is executed on the server thread once all of them are parsed.
+     * The pending command waits for the previous commands of the sender in the {@link CommandQueue}, and fails
+     * if its arguments are not parsed within {@link AsyncSubcommand#DEFAULT_TIMEOUT_MILLIS}.
      *
      * @param trace      the current trace of subcommands
      * @param sender     sender of the command
@@ -153,6 +421,26 @@ public abstract class Subcommand implements Named {
         if (!canExecute(sender)) {
             return CommandResult.failureWithUsage("You can't run this command.");
         }
+        if (argHandler.hasResolvingArguments()) {
+            // Execute once all asynchronous arguments are parsed, after the previous commands of the sender
+            CompletableFuture<CommandResult> result = new CompletableFuture<>();
+            return CommandResult.pending(result, () -> {
+                argHandler.awaitArguments()
+                        .orTimeout(AsyncSubcommand.DEFAULT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)
+                        .whenComplete((ignored, throwable) -> {
+                            if (throwable != null) {
+                                result.completeExceptionally(throwable);
+                                return;
+                            }
+                            result.complete(CommandResult.resume(() -> {
+                                argHandler.resolveArguments();
+                                return execute(trace, sender, argHandler);
+                            }));
+                        });
+                // Only the arguments are parsed until the result completes, nothing to wait for after a timeout
+                return null;
+            });
+        }
         return execute(trace, sender, argHandler);
     }
 
@@ -169,6 +457,20 @@ public abstract class Subcommand implements Named {
      */
     protected abstract CommandResult execute(CommandStack trace, CommandSender sender, ArgumentHandler argHandler) throws CommandException;
 
+    /**
+     * Applies the action to each of the targets, sliced across server ticks so that large numbers of targets,
+     * i.E: all online players, do not stall a single tick. Return the result from {@link #execute}.
+     *
+     * @param targets targets of the command
+     * @param action  action to apply to each target
+     * @param <T>     type of the targets
+     * @return pending result, completed with the aggregated result of all targets
+     * @see FanOut
+     */
+    protected <T> CommandResult forEachTarget(Collection<? extends T> targets, FanOut.TargetAction<T> action) {
+        return FanOut.of(targets, action).toResult();
+    }
+
     /**
      * Check if the sender has permissions to execute the command.
      *
@@ -176,6 +478,18 @@ public abstract class Subcommand implements Named {
      * @return true if the sender has permissions to perform the command
      */
     public boolean canExecute(CommandSender commandSender) {
-        return !requiresOp || commandSender.isOp();
+        return (!requiresOp || commandSender.isOp())
+               && (permission == null || commandSender.hasPermission(permission));
+    }
+
+    /**
+     * Check if the sender has permissions to execute the command, through the {@link VisibilityCache}.
+     * Used to tab complete subcommands, executing a subcommand checks {@link #canExecute(CommandSender)}.
+     *
+     * @param sender sender of the command
+     * @return true if the sender has permissions to perform the command
+     */
+    public final boolean isAllowed(CommandSender sender) {
+        return VisibilityCache.getInstance().canExecute(sender, this);
     }
 }
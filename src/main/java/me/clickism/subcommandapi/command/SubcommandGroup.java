@@ -1,17 +1,24 @@
 package me.clickism.subcommandapi.command;
 
+import me.clickism.subcommandapi.argument.Argument;
 import me.clickism.subcommandapi.argument.SubcommandArgument;
+import me.clickism.subcommandapi.util.ValueDomain;
 import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 /**
  * A subcommand group is a subcommand that contains multiple subcommands.
+ * <p>
+ * Subcommands are resolved through a case-insensitive index of their labels and aliases,
+ * which is rebuilt whenever the group changes, so resolving a subcommand does not depend on
+ * the number of subcommands in the group.
  */
 public class SubcommandGroup extends Subcommand {
     private final List<Subcommand> subcommands = new ArrayList<>();
     private final SubcommandArgument subcommandArgument;
+    private volatile ValueDomain<Subcommand> index = ValueDomain.of(Map.of());
 
     /**
      * Create a new subcommand group with the given label and subcommands.
@@ -21,7 +28,7 @@ public class SubcommandGroup extends Subcommand {
      */
     public SubcommandGroup(String label, boolean requiresOp) {
         super(label, requiresOp);
-        this.subcommandArgument = new SubcommandArgument(this.subcommands, false);
+        this.subcommandArgument = new SubcommandArgument(this, false);
         addArgument(subcommandArgument);
     }
 
@@ -42,26 +49,83 @@ public class SubcommandGroup extends Subcommand {
      */
     public SubcommandGroup addSubcommand(Subcommand subcommand) {
         subcommands.add(subcommand);
+        subcommand.parent = this;
+        reindex();
         return this;
     }
 
+    /**
+     * Get the subcommands of the group.
+     *
+     * @return unmodifiable list of the subcommands in registration order
+     */
+    public List<Subcommand> getSubcommands() {
+        return Collections.unmodifiableList(subcommands);
+    }
+
+    /**
+     * Get the argument of the group that selects one of its subcommands.
+     *
+     * @return the subcommand argument, or null while the group is being constructed
+     */
+    public SubcommandArgument getSubcommandArgument() {
+        return subcommandArgument;
+    }
+
+    /**
+     * Get the subcommand with the given label or alias, ignoring case.
+     *
+     * @param label label or alias of the subcommand
+     * @return the subcommand, or null if there is no such subcommand
+     */
+    @Nullable
+    public Subcommand getSubcommand(String label) {
+        return index.get(label);
+    }
+
+    /**
+     * Rebuilds the label index of the group. Labels take precedence over aliases,
+     * and earlier subcommands take precedence over later ones.
+     */
+    void reindex() {
+        Map<String, Subcommand> map = new LinkedHashMap<>();
+        for (Subcommand subcommand : subcommands) {
+            map.putIfAbsent(subcommand.getLabel().toLowerCase(Locale.ROOT), subcommand);
+        }
+        for (Subcommand subcommand : subcommands) {
+            for (String alias : subcommand.getAliases()) {
+                map.putIfAbsent(alias.toLowerCase(Locale.ROOT), subcommand);
+            }
+        }
+        index = ValueDomain.of(map);
+        subcommandArgument.invalidateCompletion();
+    }
+
     @Override
     public String getUsage() {
         return subcommandArgument.getHint();
     }
 
     @Override
-    public List<String> getTabCompletion(int index, CommandSender sender, String[] args) {
+    public List<String> getTabCompletion(int index, CommandSender sender, ArgumentView args) {
         if (index == 0) {
             // Return the subcommands of the group that can be performed by the sender
-            return subcommandArgument.getTabCompletion(sender, args[index]);
-        }
-        for (Subcommand subcommand : subcommands) {
-            if (!subcommand.getLabel().equalsIgnoreCase(args[0])) continue;
-            // Return the tab completion for the subcommand
-            return subcommand.getTabCompletion(index - 1, sender, ArgumentHandler.trimArgs(args));
+            return subcommandArgument.getTabCompletion(sender, args.get(index));
         }
-        return null;
+        Subcommand subcommand = getSubcommand(args.get(0));
+        if (subcommand == null) return null;
+        // Return the tab completion for the subcommand
+        return subcommand.complete(index - 1, sender, args.shift());
+    }
+
+    @Override
+    @Nullable
+    public Argument<?> getCompletionArgument(int index, ArgumentView args) {
+        if (hasCustomTabCompletion()) return null;
+        if (index == 0) return subcommandArgument;
+        Subcommand subcommand = getSubcommand(args.get(0));
+        if (subcommand == null) return null;
+        return subcommand.getCompletionArgument(index - 1, args.shift());
     }
 
     @Override
@@ -0,0 +1,219 @@
+package me.clickism.subcommandapi.command;
+
+import me.clickism.subcommandapi.util.PluginBinding;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches which subcommands each player can execute, so operator and permission checks, which can be
+ * expensive with permission plugins, are done once per player and subcommand instead of on every
+ * tab completion. Executing a subcommand always checks the access of the sender directly.
+ * <p>
+ * Every subcommand has a unique node id, and the access of a player is kept in a bitmap indexed by
+ * the node ids. The bitmap of a player is discarded when the operator status of the player changes,
+ * when the player quits, once it is older than the {@link #getMaxAge(TimeUnit) maximum age}, and
+ * when {@link #invalidate(CommandSender)} is called, i.E: by a listener of the permission plugin.
+ * All bitmaps are discarded when the requirements of a subcommand change.
+ * <p>
+ * Only subcommands whose access is {@link Subcommand#isAccessDeterminedByPermissions() determined by
+ * their operator requirement and permission} are cached, other senders than players are never cached.
+ */
+public final class VisibilityCache implements Listener {
+    /**
+     * Default maximum age of the bitmap of a player, in milliseconds.
+     */
+    public static final long DEFAULT_MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final VisibilityCache INSTANCE = new VisibilityCache();
+    private static final AtomicInteger NODE_IDS = new AtomicInteger();
+
+    private final Map<UUID, Visibility> visibilities = new ConcurrentHashMap<>();
+    private final AtomicLong epoch = new AtomicLong();
+    private volatile boolean enabled = true;
+    private volatile long maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_MAX_AGE_MILLIS);
+    private final PluginBinding binding = new PluginBinding(this, this::invalidateAll);
+
+    private VisibilityCache() {
+    }
+
+    /**
+     * Gets the visibility cache shared by all subcommands.
+     *
+     * @return the shared visibility cache
+     */
+    public static VisibilityCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Gets a new unique node id for a subcommand.
+     *
+     * @return node id
+     */
+    static int nextNodeId() {
+        return NODE_IDS.getAndIncrement();
+    }
+
+    /**
+     * Registers the listener that discards the bitmaps of players that quit, if it was not registered yet.
+     * The listener is moved to another registered plugin when its plugin is disabled.
+     *
+     * @param plugin plugin to register the listener with
+     */
+    void register(Plugin plugin) {
+        binding.bind(plugin);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    private void onQuit(PlayerQuitEvent event) {
+        invalidate(event.getPlayer());
+    }
+
+    /**
+     * Checks if the sender can execute the subcommand, through the bitmap of the sender.
+     *
+     * @param sender     sender of the command
+     * @param subcommand subcommand
+     * @return true if the sender can execute the subcommand
+     */
+    public boolean canExecute(CommandSender sender, Subcommand subcommand) {
+        if (!enabled || !(sender instanceof Player player) || !subcommand.isAccessDeterminedByPermissions()) {
+            return subcommand.canExecute(sender);
+        }
+        boolean op = player.isOp();
+        long epoch = this.epoch.get();
+        long now = System.nanoTime();
+        UUID uuid = player.getUniqueId();
+        Visibility visibility = visibilities.get(uuid);
+        if (visibility == null || visibility.op != op || visibility.epoch != epoch
+            || now - visibility.created > maxAgeNanos) {
+            visibility = new Visibility(op, epoch, now);
+            visibilities.put(uuid, visibility);
+        }
+        int node = subcommand.getNodeId();
+        int known = visibility.get(node);
+        if (known >= 0) return known == 1;
+        boolean allowed = subcommand.canExecute(sender);
+        visibility.set(node, allowed);
+        return allowed;
+    }
+
+    /**
+     * Discards the bitmap of the sender. Call when the permissions of the sender change.
+     *
+     * @param sender sender
+     */
+    public void invalidate(CommandSender sender) {
+        if (sender instanceof Player player) {
+            visibilities.remove(player.getUniqueId());
+        }
+    }
+
+    /**
+     * Discards the bitmaps of all players. Called when the requirements of a subcommand change.
+     */
+    public void invalidateAll() {
+        epoch.incrementAndGet();
+        visibilities.clear();
+    }
+
+    /**
+     * Whether the cache is enabled. Enabled by default.
+     *
+     * @return true if the cache is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables the cache. Disabling the cache discards all bitmaps.
+     *
+     * @param enabled whether the cache should be enabled
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) invalidateAll();
+    }
+
+    /**
+     * Gets the maximum age of the bitmap of a player, after which the access of the player is checked again.
+     *
+     * @param unit unit of the returned age
+     * @return maximum age in the given unit
+     */
+    public long getMaxAge(TimeUnit unit) {
+        return unit.convert(maxAgeNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Sets the maximum age of the bitmap of a player, after which the access of the player is checked again.
+     *
+     * @param maxAge maximum age
+     * @param unit   unit of the maximum age
+     */
+    public void setMaxAge(long maxAge, TimeUnit unit) {
+        if (maxAge <= 0) throw new IllegalArgumentException("Max age must be positive: " + maxAge);
+        this.maxAgeNanos = unit.toNanos(maxAge);
+    }
+
+    /**
+     * Returns the number of players with a bitmap.
+     *
+     * @return number of players with a bitmap
+     */
+    public int size() {
+        return visibilities.size();
+    }
+
+    /**
+     * The access of a player to the subcommands, two bits per node: whether the access is known,
+     * and whether the player can execute the subcommand.
+     */
+    private static final class Visibility {
+        private final boolean op;
+        private final long epoch;
+        private final long created;
+        private long[] known = new long[1];
+        private long[] allowed = new long[1];
+
+        private Visibility(boolean op, long epoch, long created) {
+            this.op = op;
+            this.epoch = epoch;
+            this.created = created;
+        }
+
+        /**
+         * Gets the access to the node, 1 if allowed, 0 if denied and -1 if unknown.
+         */
+        private synchronized int get(int node) {
+            int word = node >>> 6;
+            if (word >= known.length || (known[word] & (1L << node)) == 0) return -1;
+            return (allowed[word] & (1L << node)) != 0 ? 1 : 0;
+        }
+
+        private synchronized void set(int node, boolean access) {
+            int word = node >>> 6;
+            if (word >= known.length) {
+                int length = Math.max(word + 1, known.length * 2);
+                known = Arrays.copyOf(known, length);
+                allowed = Arrays.copyOf(allowed, length);
+            }
+            known[word] |= 1L << node;
+            if (access) allowed[word] |= 1L << node;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package me.clickism.subcommandapi.metrics;
+
+import me.clickism.subcommandapi.command.Subcommand;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Collects invocation counts, results and latencies per command path.
+ * <p>
+ * Metrics are kept per subcommand, so recording them does not build the path of the command.
+ * The path is only built once, when the metrics of a subcommand are created.
+ */
+public class CommandMetrics {
+    private final Map<Subcommand, NodeMetrics> metrics = new ConcurrentHashMap<>();
+    private volatile boolean enabled = true;
+
+    /**
+     * Creates new empty command metrics.
+     */
+    public CommandMetrics() {
+    }
+
+    /**
+     * Gets the metrics of the given subcommand, creating them if they don't exist.
+     * <p>
+     * The metrics keep the path the subcommand had when they were created, i.E: before its label changed.
+     *
+     * @param subcommand the subcommand
+     * @return metrics of the subcommand
+     */
+    public NodeMetrics getOrCreate(Subcommand subcommand) {
+        NodeMetrics nodeMetrics = metrics.get(subcommand);
+        if (nodeMetrics != null) return nodeMetrics;
+        return metrics.computeIfAbsent(subcommand, node -> new NodeMetrics(node.getPath()));
+    }
+
+    /**
+     * Gets the metrics of the given path.
+     *
+     * @param path command path, i.E: /command subcommand
+     * @return metrics of the path, or null if the path was never recorded
+     */
+    @Nullable
+    public NodeMetrics get(String path) {
+        for (NodeMetrics nodeMetrics : metrics.values()) {
+            if (nodeMetrics.getPath().equals(path)) return nodeMetrics;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the metrics of all recorded paths.
+     *
+     * @return unmodifiable collection of metrics
+     */
+    public Collection<NodeMetrics> getAll() {
+        return Collections.unmodifiableCollection(metrics.values());
+    }
+
+    /**
+     * Gets the paths with the highest mean execution latency.
+     *
+     * @param count maximum number of paths to return
+     * @return metrics of the slowest paths, slowest first
+     */
+    public List<NodeMetrics> getSlowest(int count) {
+        return getTop(count, nodeMetrics -> nodeMetrics.getTotalLatency().getMeanNanos());
+    }
+
+    /**
+     * Gets the paths with the highest value of the given metric.
+     *
+     * @param count  maximum number of paths to return
+     * @param metric metric to sort by
+     * @return metrics of the paths with the highest values, highest first
+     */
+    public List<NodeMetrics> getTop(int count, ToLongFunction<NodeMetrics> metric) {
+        // Snapshot the values, they may change while sorting
+        record Entry(NodeMetrics metrics, long value) {
+        }
+        return metrics.values().stream()
+                .map(nodeMetrics -> new Entry(nodeMetrics, metric.applyAsLong(nodeMetrics)))
+                .sorted(Comparator.comparingLong(Entry::value).reversed())
+                .limit(count)
+                .map(Entry::metrics)
+                .toList();
+    }
+
+    /**
+     * Returns whether metrics are recorded.
+     *
+     * @return true if metrics are recorded
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether metrics are recorded.
+     *
+     * @param enabled true to record metrics
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Removes all recorded metrics.
+     */
+    public void reset() {
+        metrics.clear();
+    }
+}
@@ -0,0 +1,126 @@
+package me.clickism.subcommandapi.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A contention-free histogram of latencies with power of two buckets.
+ * <p>
+ * Percentiles are approximated by the upper bound of the bucket they fall into.
+ */
+public class LatencyHistogram {
+    private static final int BUCKETS = 48;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Creates a new empty histogram.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos latency in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+        buckets[bucket].increment();
+        count.increment();
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    /**
+     * Gets the number of recorded latencies.
+     *
+     * @return number of recorded latencies
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the sum of all recorded latencies.
+     *
+     * @return total latency in nanoseconds
+     */
+    public long getTotalNanos() {
+        return total.sum();
+    }
+
+    /**
+     * Gets the mean of the recorded latencies.
+     *
+     * @return mean latency in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getMeanNanos() {
+        long count = getCount();
+        return count == 0 ? 0 : getTotalNanos() / count;
+    }
+
+    /**
+     * Gets the highest recorded latency.
+     *
+     * @return highest latency in nanoseconds
+     */
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    /**
+     * Gets the approximate latency below which the given fraction of latencies fall.
+     *
+     * @param percentile fraction between 0 and 1, i.E: 0.99
+     * @return approximate latency in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getPercentileNanos(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            count += counts[i];
+        }
+        if (count == 0) return 0;
+        long target = (long) Math.ceil(count * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(i == 0 ? 0 : (1L << i) - 1, getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    /**
+     * Resets the histogram.
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        total.reset();
+        max.reset();
+    }
+
+    /**
+     * Formats a latency in nanoseconds as milliseconds.
+     *
+     * @param nanos latency in nanoseconds
+     * @return formatted latency, i.E: 1.25ms
+     */
+    public static String format(long nanos) {
+        return String.format("%.2fms", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+}
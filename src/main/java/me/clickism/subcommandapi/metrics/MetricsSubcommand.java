@@ -0,0 +1,61 @@
+package me.clickism.subcommandapi.metrics;
+
+import me.clickism.subcommandapi.argument.IntegerArgument;
+import me.clickism.subcommandapi.command.*;
+import org.bukkit.command.CommandSender;
+
+import java.util.List;
+
+/**
+ * A subcommand that shows the slowest command paths, by the time spent parsing arguments and executing
+ * the command together. Requires operator permissions.
+ * <p>
+ * i.E: /command metrics 5
+ */
+public class MetricsSubcommand extends Subcommand {
+    private static final int DEFAULT_COUNT = 10;
+
+    private final CommandMetrics metrics;
+    private final IntegerArgument countArgument = new IntegerArgument("count", false);
+
+    /**
+     * Creates a new metrics subcommand.
+     *
+     * @param label   the label of the subcommand
+     * @param metrics the metrics to show
+     */
+    public MetricsSubcommand(String label, CommandMetrics metrics) {
+        super(label, true);
+        this.metrics = metrics;
+        addArgument(countArgument);
+        addFlag("reset");
+    }
+
+    @Override
+    protected CommandResult execute(CommandStack trace, CommandSender sender, ArgumentHandler argHandler) throws CommandException {
+        if (argHandler.hasFlag("reset")) {
+            metrics.reset();
+            return CommandResult.success("Command metrics reset.");
+        }
+        int count = argHandler.getOrDefault(countArgument, DEFAULT_COUNT);
+        if (count < 1) {
+            return CommandResult.failureWithUsage("Count must be positive: &l" + count);
+        }
+        List<NodeMetrics> slowest = metrics.getSlowest(count);
+        if (slowest.isEmpty()) {
+            return CommandResult.warning("No commands were recorded yet.");
+        }
+        StringBuilder builder = new StringBuilder("Slowest commands:");
+        for (NodeMetrics nodeMetrics : slowest) {
+            LatencyHistogram total = nodeMetrics.getTotalLatency();
+            builder.append('\n').append(nodeMetrics.getPath())
+                    .append(": ").append(LatencyHistogram.format(total.getMeanNanos()))
+                    .append(" avg, ").append(LatencyHistogram.format(total.getPercentileNanos(0.99)))
+                    .append(" p99, ").append(LatencyHistogram.format(total.getMaxNanos()))
+                    .append(" max, ").append(nodeMetrics.getInvocations())
+                    .append(" calls, ").append(nodeMetrics.getFailures())
+                    .append(" failures");
+        }
+        return CommandResult.success(builder.toString());
+    }
+}
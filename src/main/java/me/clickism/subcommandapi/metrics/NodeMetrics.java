@@ -0,0 +1,170 @@
+package me.clickism.subcommandapi.metrics;
+
+import me.clickism.subcommandapi.command.CommandResult;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of a single command path.
+ */
+public class NodeMetrics {
+    private static final CommandResult.CommandResultType[] RESULT_TYPES = CommandResult.CommandResultType.values();
+
+    private final String path;
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder[] results = new LongAdder[RESULT_TYPES.length];
+    private final LatencyHistogram parseLatency = new LatencyHistogram();
+    private final LatencyHistogram executeLatency = new LatencyHistogram();
+    private final LatencyHistogram totalLatency = new LatencyHistogram();
+    private final LatencyHistogram completionLatency = new LatencyHistogram();
+    private final LatencyHistogram tabCompletionLatency = new LatencyHistogram();
+
+    /**
+     * Creates new empty metrics for the given path.
+     *
+     * @param path command path, i.E: /command subcommand
+     */
+    public NodeMetrics(String path) {
+        this.path = path;
+        for (int i = 0; i < results.length; i++) {
+            results[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records an execution of the command that completed at once.
+     *
+     * @param type         type of the result, or null if the command threw an unexpected exception
+     * @param parseNanos   time spent parsing arguments in nanoseconds
+     * @param executeNanos time spent executing in nanoseconds
+     */
+    public void recordExecution(CommandResult.CommandResultType type, long parseNanos, long executeNanos) {
+        recordExecution(type, parseNanos, executeNanos, parseNanos + executeNanos);
+    }
+
+    /**
+     * Records an execution of the command.
+     *
+     * @param type            type of the result, or null if the command threw an unexpected exception
+     * @param parseNanos      time spent parsing arguments in nanoseconds
+     * @param executeNanos    time spent executing on the server thread in nanoseconds
+     * @param completionNanos time until the result of the command in nanoseconds, including the time a pending
+     *                        command spent waiting, i.E: for its future or the ticks of its job
+     */
+    public void recordExecution(CommandResult.CommandResultType type, long parseNanos, long executeNanos,
+                                long completionNanos) {
+        invocations.increment();
+        if (type == null) {
+            errors.increment();
+        } else {
+            results[type.ordinal()].increment();
+        }
+        parseLatency.record(parseNanos);
+        executeLatency.record(executeNanos);
+        totalLatency.record(parseNanos + executeNanos);
+        completionLatency.record(completionNanos);
+    }
+
+    /**
+     * Records a tab completion of the command.
+     *
+     * @param nanos time spent completing in nanoseconds
+     */
+    public void recordTabCompletion(long nanos) {
+        tabCompletionLatency.record(nanos);
+    }
+
+    /**
+     * Gets the command path of the metrics.
+     *
+     * @return the command path
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the number of executions.
+     *
+     * @return number of executions
+     */
+    public long getInvocations() {
+        return invocations.sum();
+    }
+
+    /**
+     * Gets the number of executions with the given result type.
+     *
+     * @param type result type
+     * @return number of executions with the result type
+     */
+    public long getResultCount(CommandResult.CommandResultType type) {
+        return results[type.ordinal()].sum();
+    }
+
+    /**
+     * Gets the number of failed executions, including unexpected exceptions.
+     *
+     * @return number of failed executions
+     */
+    public long getFailures() {
+        return getResultCount(CommandResult.CommandResultType.FAILURE)
+               + getResultCount(CommandResult.CommandResultType.FAILURE_WITH_USAGE)
+               + getErrors();
+    }
+
+    /**
+     * Gets the number of executions that threw an unexpected exception.
+     *
+     * @return number of unexpected exceptions
+     */
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * Gets the latency of parsing arguments.
+     *
+     * @return parse latency histogram
+     */
+    public LatencyHistogram getParseLatency() {
+        return parseLatency;
+    }
+
+    /**
+     * Gets the latency of executing the command on the server thread, excluding parsing arguments.
+     *
+     * @return execute latency histogram
+     */
+    public LatencyHistogram getExecuteLatency() {
+        return executeLatency;
+    }
+
+    /**
+     * Gets the latency of parsing arguments and executing the command together.
+     *
+     * @return total latency histogram
+     */
+    public LatencyHistogram getTotalLatency() {
+        return totalLatency;
+    }
+
+    /**
+     * Gets the time until the result of the command, including the time pending commands spent waiting.
+     *
+     * @return completion latency histogram
+     */
+    public LatencyHistogram getCompletionLatency() {
+        return completionLatency;
+    }
+
+    /**
+     * Gets the latency of tab completing the command.
+     *
+     * @return tab completion latency histogram
+     */
+    public LatencyHistogram getTabCompletionLatency() {
+        return tabCompletionLatency;
+    }
+}
@@ -0,0 +1,135 @@
+package me.clickism.subcommandapi.util;
+
+import java.util.*;
+
+/**
+ * An immutable, sorted index of tab completion candidates.
+ * <p>
+ * Candidates are lower-cased and sorted once when the index is created. Completions are
+ * found with a binary search for the candidates that start with the searched text, and
+ * only if there are none the candidates are scanned for the searched text as a subsequence.
+ * <p>
+ * Arguments can return a completion index from {@code getTabCompletion}, the tab completer
+ * then queries the index instead of filtering and sorting the candidates.
+ */
+public final class CompletionIndex extends AbstractList<String> implements RandomAccess {
+    private static final CompletionIndex EMPTY = new CompletionIndex(new String[0], new String[0]);
+
+    private final String[] values;
+    private final String[] keys;
+
+    private CompletionIndex(String[] values, String[] keys) {
+        this.values = values;
+        this.keys = keys;
+    }
+
+    /**
+     * Creates a completion index of the given candidates. Null candidates are ignored.
+     *
+     * @param candidates candidates
+     * @return completion index
+     */
+    public static CompletionIndex of(Collection<String> candidates) {
+        if (candidates.isEmpty()) return EMPTY;
+        String[][] entries = new String[candidates.size()][];
+        int size = 0;
+        for (String candidate : candidates) {
+            if (candidate == null) continue;
+            entries[size++] = new String[]{candidate.toLowerCase(Locale.ROOT), candidate};
+        }
+        Arrays.sort(entries, 0, size, Comparator.<String[], String>comparing(entry -> entry[0])
+                .thenComparing(entry -> entry[1]));
+        String[] values = new String[size];
+        String[] keys = new String[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = entries[i][0];
+            values[i] = entries[i][1];
+        }
+        return new CompletionIndex(values, keys);
+    }
+
+    /**
+     * Creates a completion index of the given candidates.
+     *
+     * @param candidates candidates
+     * @return completion index
+     */
+    public static CompletionIndex of(String... candidates) {
+        return of(Arrays.asList(candidates));
+    }
+
+    /**
+     * Returns an empty completion index.
+     *
+     * @return empty completion index
+     */
+    public static CompletionIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Gets the candidates that start with the given text, ignoring case.
+     * If no candidate starts with the text, gets the candidates that contain the text as a subsequence.
+     *
+     * @param searchText text to search for
+     * @return modifiable list of the matching candidates, sorted
+     */
+    public List<String> complete(String searchText) {
+        String key = searchText.toLowerCase(Locale.ROOT);
+        int from = lowerBound(key);
+        int to = lowerBound(key + Character.MAX_VALUE);
+        if (from < to) {
+            return new ArrayList<>(Arrays.asList(values).subList(from, to));
+        }
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < keys.length; i++) {
+            if (isSubsequence(keys[i], key)) {
+                list.add(values[i]);
+            }
+        }
+        return list;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public String get(int index) {
+        return values[index];
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Checks whether the search text is a subsequence of the string.
+     *
+     * @param string     string
+     * @param searchText search text
+     * @return true if all characters of the search text appear in the string in order
+     */
+    public static boolean isSubsequence(String string, String searchText) {
+        int stringIndex = 0;
+        int searchTextIndex = 0;
+        while (stringIndex < string.length() && searchTextIndex < searchText.length()) {
+            if (string.charAt(stringIndex) == searchText.charAt(searchTextIndex)) {
+                searchTextIndex++;
+            }
+            stringIndex++;
+        }
+        return searchTextIndex == searchText.length();
+    }
+}
@@ -0,0 +1,317 @@
+package me.clickism.subcommandapi.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe collection of named objects, where names are case-insensitive.
+ * <p>
+ * Objects are stored in a concurrent map by their lower-cased names, so access and removal by name
+ * take constant time and never lock. Writes are serialized, and each write increments the version of
+ * the collection. Iteration and sorting work on an immutable snapshot, which is rebuilt lazily once
+ * the version changes, so readers never see a partially applied write, i.E: a half-sorted collection.
+ * <p>
+ * The sorted name index is a concurrent skip list, so prefix queries never lock either.
+ * <p>
+ * Unlike {@link NamedCollection}, adding an object replaces the object with the same name.
+ *
+ * @param <T> type of the named objects
+ */
+public class ConcurrentNamedCollection<T extends Named> extends NamedCollection<T> {
+    private static final int MAX_SNAPSHOT_ATTEMPTS = 3;
+
+    private final Map<String, Entry<T>> entries = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, T> sortedIndex = new ConcurrentSkipListMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Object writeLock = new Object();
+    /**
+     * Version of the collection, odd while a write is in progress.
+     */
+    private volatile long version;
+    private volatile Snapshot<T> snapshot = new Snapshot<>(0, List.of());
+
+    /**
+     * Creates a new, empty concurrent named collection.
+     */
+    public ConcurrentNamedCollection() {
+    }
+
+    /**
+     * Creates a new concurrent named collection with the given objects.
+     *
+     * @param objects named objects
+     */
+    public ConcurrentNamedCollection(Collection<? extends T> objects) {
+        objects.forEach(this::add);
+    }
+
+    private static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Puts the object into the map and the sorted index, replacing the object with the same name.
+     * Must be called while writing.
+     */
+    private void put(T t) {
+        Entry<T> previous = entries.put(fold(t.getName()), new Entry<>(sequence.incrementAndGet(), t));
+        if (previous != null) {
+            sortedIndex.remove(indexKey(previous.value.getName()));
+        }
+        sortedIndex.put(indexKey(t.getName()), t);
+    }
+
+    private void beginWrite() {
+        version++;
+    }
+
+    private void endWrite() {
+        version++;
+    }
+
+    /**
+     * Gets the object with the given name, ignoring case.
+     *
+     * @param name name of the object
+     * @return object with the given name, or null if not found
+     */
+    @Override
+    @Nullable
+    public T get(String name) {
+        Entry<T> entry = entries.get(fold(name));
+        return entry != null ? entry.value : null;
+    }
+
+    /**
+     * Adds the object, replacing the object with the same name ignoring case.
+     *
+     * @param t object to add
+     * @return true
+     */
+    @Override
+    public boolean add(T t) {
+        synchronized (writeLock) {
+            beginWrite();
+            try {
+                put(t);
+            } finally {
+                endWrite();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean addIfAbsent(T t) {
+        synchronized (writeLock) {
+            String key = fold(t.getName());
+            if (entries.containsKey(key)) return false;
+            beginWrite();
+            try {
+                put(t);
+            } finally {
+                endWrite();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes the object with the given name, ignoring case.
+     *
+     * @param name name of the object
+     * @return the removed object, or null if there was no object with the given name
+     */
+    @Nullable
+    public T removeByName(String name) {
+        synchronized (writeLock) {
+            String key = fold(name);
+            if (!entries.containsKey(key)) return null;
+            beginWrite();
+            try {
+                Entry<T> entry = entries.remove(key);
+                if (entry == null) return null;
+                sortedIndex.remove(indexKey(entry.value.getName()));
+                return entry.value;
+            } finally {
+                endWrite();
+            }
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof Named named)) return false;
+        synchronized (writeLock) {
+            String key = fold(named.getName());
+            Entry<T> entry = entries.get(key);
+            if (entry == null || !entry.value.equals(o)) return false;
+            beginWrite();
+            try {
+                entries.remove(key);
+                sortedIndex.remove(indexKey(entry.value.getName()));
+            } finally {
+                endWrite();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof Named named)) return false;
+        Entry<T> entry = entries.get(fold(named.getName()));
+        return entry != null && entry.value.equals(o);
+    }
+
+    @Override
+    public void clear() {
+        synchronized (writeLock) {
+            beginWrite();
+            try {
+                entries.clear();
+                sortedIndex.clear();
+            } finally {
+                endWrite();
+            }
+        }
+    }
+
+    /**
+     * Sorts the collection using the given comparator. Objects added later are added to the end.
+     * <p>
+     * The collection is sorted atomically, readers see either the unsorted or the sorted collection.
+     *
+     * @param comparator comparator
+     */
+    @Override
+    public void sort(Comparator<T> comparator) {
+        synchronized (writeLock) {
+            List<T> list = new ArrayList<>(entries.size());
+            entries.values().forEach(entry -> list.add(entry.value));
+            list.sort(comparator);
+            beginWrite();
+            try {
+                for (T t : list) {
+                    entries.put(fold(t.getName()), new Entry<>(sequence.incrementAndGet(), t));
+                }
+            } finally {
+                endWrite();
+            }
+        }
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    protected NavigableMap<String, T> getSortedIndex() {
+        return sortedIndex;
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Iterates over a snapshot of the collection. Removing through the iterator removes the object
+     * from the collection.
+     *
+     * @return iterator
+     */
+    @Override
+    @NotNull
+    public Iterator<T> iterator() {
+        Iterator<T> iterator = snapshot().iterator();
+        return new Iterator<>() {
+            private T current;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                current = iterator.next();
+                return current;
+            }
+
+            @Override
+            public void remove() {
+                if (current == null) throw new IllegalStateException();
+                ConcurrentNamedCollection.this.remove(current);
+                current = null;
+            }
+        };
+    }
+
+    /**
+     * Gets an immutable snapshot of the collection, in insertion or sorted order.
+     * <p>
+     * The snapshot includes every write that completed before this call. If writes keep racing the
+     * snapshot, it is built while holding the write lock.
+     *
+     * @return immutable list of the objects
+     */
+    public List<T> snapshot() {
+        for (int attempt = 0; attempt < MAX_SNAPSHOT_ATTEMPTS; attempt++) {
+            Snapshot<T> current = snapshot;
+            long version = this.version;
+            if (current.version == version) return current.objects;
+            if ((version & 1) != 0) {
+                Thread.onSpinWait(); // Write in progress
+                continue;
+            }
+            List<Entry<T>> list = new ArrayList<>(entries.values());
+            if (this.version != version) continue;
+            return publish(version, list);
+        }
+        synchronized (writeLock) {
+            Snapshot<T> current = snapshot;
+            if (current.version == version) return current.objects;
+            return publish(version, new ArrayList<>(entries.values()));
+        }
+    }
+
+    /**
+     * Sorts the entries copied at the given version and stores them as the current snapshot.
+     */
+    private List<T> publish(long version, List<Entry<T>> list) {
+        list.sort(null);
+        List<T> objects = new ArrayList<>(list.size());
+        list.forEach(entry -> objects.add(entry.value));
+        Snapshot<T> built = new Snapshot<>(version, Collections.unmodifiableList(objects));
+        snapshot = built;
+        return built.objects;
+    }
+
+    /**
+     * An object with the sequence number it was added with, ordered by the sequence number.
+     */
+    private record Entry<T>(long sequence, T value) implements Comparable<Entry<T>> {
+        @Override
+        public int compareTo(Entry<T> other) {
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * An immutable snapshot of the objects at a version.
+     */
+    private record Snapshot<T>(long version, List<T> objects) {
+    }
+}
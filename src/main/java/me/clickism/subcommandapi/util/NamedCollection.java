@@ -10,6 +10,7 @@ import java.util.stream.Collectors;
 /**
  * A collection of named objects.
  * Provides automatic O(1) access to objects by name, through a synced map from name to object.
+ * Also keeps a sorted index of the names, to query the objects whose names start with a prefix.
  * The collection must be backed by a parent collection.
  *
  * @param <T> type of the named objects
@@ -17,6 +18,8 @@ import java.util.stream.Collectors;
 public class NamedCollection<T extends Named> extends AbstractCollection<T> {
     private final Collection<T> parent;
     private final Map<String, T> nameMap;
+    private final NavigableMap<String, T> sortedIndex;
+    private long version;
 
     /**
      * Creates a new named collection.
@@ -26,7 +29,88 @@ public class NamedCollection<T extends Named> extends AbstractCollection<T> {
     public NamedCollection(Collection<T> parent) {
         this.parent = parent;
         this.nameMap = new HashMap<>();
-        parent.forEach(option -> nameMap.put(option.getName(), option));
+        this.sortedIndex = new TreeMap<>();
+        parent.forEach(option -> {
+            nameMap.put(option.getName(), option);
+            sortedIndex.put(indexKey(option.getName()), option);
+        });
+    }
+
+    /**
+     * Creates a named collection without a parent collection,
+     * for subclasses that store their objects themselves and override all methods accessing them.
+     */
+    protected NamedCollection() {
+        this.parent = List.of();
+        this.nameMap = Map.of();
+        this.sortedIndex = Collections.emptyNavigableMap();
+    }
+
+    /**
+     * Gets the key of the given name in the sorted index. Keys are ordered by the lower-cased name first,
+     * so names that start with the same prefix ignoring case are next to each other.
+     *
+     * @param name name
+     * @return key in the sorted index
+     */
+    protected static String indexKey(String name) {
+        return name.toLowerCase(Locale.ROOT) + '\0' + name;
+    }
+
+    /**
+     * Gets the version of the collection, which changes whenever objects are added, removed or sorted
+     * through the collection. Changes made directly to the parent collection are not tracked.
+     *
+     * @return version of the collection
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the sorted index of the objects, keyed by {@link #indexKey(String)}.
+     *
+     * @return sorted index
+     */
+    protected NavigableMap<String, T> getSortedIndex() {
+        return sortedIndex;
+    }
+
+    /**
+     * Gets the objects whose names start with the given prefix, ignoring case, ordered by name.
+     *
+     * @param prefix prefix of the names
+     * @param limit  maximum number of objects to return
+     * @return modifiable list of at most limit objects
+     */
+    public List<T> getByPrefix(String prefix, int limit) {
+        List<T> list = new ArrayList<>(Math.min(limit, 16));
+        for (T t : getPrefixRange(prefix).values()) {
+            if (list.size() >= limit) break;
+            list.add(t);
+        }
+        return list;
+    }
+
+    /**
+     * Gets the names that start with the given prefix, ignoring case, in order.
+     *
+     * @param prefix prefix of the names
+     * @param limit  maximum number of names to return
+     * @return modifiable list of at most limit names
+     */
+    public List<String> getNamesByPrefix(String prefix, int limit) {
+        List<String> list = new ArrayList<>(Math.min(limit, 16));
+        for (T t : getPrefixRange(prefix).values()) {
+            if (list.size() >= limit) break;
+            list.add(t.getName());
+        }
+        return list;
+    }
+
+    private NavigableMap<String, T> getPrefixRange(String prefix) {
+        String from = prefix.toLowerCase(Locale.ROOT);
+        return getSortedIndex().subMap(from, true, from + Character.MAX_VALUE, false);
     }
 
     /**
@@ -39,6 +123,7 @@ public class NamedCollection<T extends Named> extends AbstractCollection<T> {
         list.sort(comparator);
         parent.clear();
         parent.addAll(list);
+        version++;
     }
 
     /**
@@ -55,7 +140,7 @@ public class NamedCollection<T extends Named> extends AbstractCollection<T> {
     @Override
     @NotNull
     public Iterator<T> iterator() {
-        return new NamedIterator<>(parent, nameMap);
+        return new NamedIterator<>(parent, nameMap, sortedIndex, () -> version++);
     }
 
     @Override
@@ -66,6 +151,8 @@ public class NamedCollection<T extends Named> extends AbstractCollection<T> {
     @Override
     public boolean add(T t) {
         nameMap.put(t.getName(), t);
+        sortedIndex.put(indexKey(t.getName()), t);
+        version++;
         return parent.add(t);
     }
 
@@ -89,12 +176,17 @@ public class NamedCollection<T extends Named> extends AbstractCollection<T> {
      */
     private static class NamedIterator<T extends Named> implements Iterator<T> {
         private final Map<String, T> selectionsMap;
+        private final Map<String, T> sortedIndex;
+        private final Runnable onRemove;
         private final Iterator<T> iterator;
         private T current;
 
-        private NamedIterator(Collection<T> selections, Map<String, T> selectionsMap) {
+        private NamedIterator(Collection<T> selections, Map<String, T> selectionsMap, Map<String, T> sortedIndex,
+                              Runnable onRemove) {
             this.iterator = selections.iterator();
             this.selectionsMap = selectionsMap;
+            this.sortedIndex = sortedIndex;
+            this.onRemove = onRemove;
         }
 
         @Override
@@ -112,6 +204,8 @@ public class NamedCollection<T extends Named> extends AbstractCollection<T> {
         public void remove() {
             iterator.remove();
             selectionsMap.remove(current.getName());
+            sortedIndex.remove(indexKey(current.getName()));
+            onRemove.run();
         }
     }
 
@@ -0,0 +1,104 @@
+package me.clickism.subcommandapi.util;
+
+/**
+ * Utility methods to validate numbers before parsing them, so invalid input does not throw.
+ */
+public final class Numbers {
+    private Numbers() {
+    }
+
+    /**
+     * Checks whether the string can be parsed with {@link Integer#parseInt(String)}.
+     *
+     * @param string string
+     * @return true if the string is a decimal integer in the range of int
+     */
+    public static boolean isInt(String string) {
+        return isInteger(string, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Checks whether the string can be parsed with {@link Long#parseLong(String)}.
+     *
+     * @param string string
+     * @return true if the string is a decimal integer in the range of long
+     */
+    public static boolean isLong(String string) {
+        return isInteger(string, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Checks whether the string is a decimal number that can be parsed with {@link Double#parseDouble(String)},
+     * i.E: 1, -2.5, .5, 1e3 or 2.0d.
+     * <p>
+     * Hexadecimal numbers, NaN and Infinity are not decimal numbers.
+     *
+     * @param string string
+     * @return true if the string is a decimal number
+     */
+    public static boolean isDecimal(String string) {
+        int end = string.length();
+        int i = 0;
+        while (i < end && string.charAt(i) <= ' ') i++;
+        while (end > i && string.charAt(end - 1) <= ' ') end--;
+        if (i < end && isSign(string.charAt(i))) i++;
+        int digits = 0;
+        while (i < end && isDigit(string.charAt(i))) {
+            i++;
+            digits++;
+        }
+        if (i < end && string.charAt(i) == '.') {
+            i++;
+            while (i < end && isDigit(string.charAt(i))) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) return false;
+        if (i < end && (string.charAt(i) == 'e' || string.charAt(i) == 'E')) {
+            i++;
+            if (i < end && isSign(string.charAt(i))) i++;
+            int exponentDigits = 0;
+            while (i < end && isDigit(string.charAt(i))) {
+                i++;
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) return false;
+        }
+        if (i < end && "fFdD".indexOf(string.charAt(i)) >= 0) i++;
+        return i == end;
+    }
+
+    private static boolean isInteger(String string, long min, long max) {
+        int length = string.length();
+        if (length == 0) return false;
+        int i = 0;
+        boolean negative = false;
+        char first = string.charAt(0);
+        if (isSign(first)) {
+            if (length == 1) return false;
+            negative = first == '-';
+            i++;
+        }
+        // Accumulate negatively like Long.parseLong, so the minimum value does not overflow
+        long limit = negative ? min : -max;
+        long multiplyLimit = limit / 10;
+        long result = 0;
+        for (; i < length; i++) {
+            int digit = Character.digit(string.charAt(i), 10);
+            if (digit < 0 || result < multiplyLimit) return false;
+            result *= 10;
+            if (result < limit + digit) return false;
+            result -= digit;
+        }
+        return true;
+    }
+
+    private static boolean isSign(char c) {
+        return c == '-' || c == '+';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,334 @@
+package me.clickism.subcommandapi.util;
+
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * A compact, case-insensitive index of the names and unique ids of all players that have
+ * played on the server.
+ * <p>
+ * The index is built once from {@link Bukkit#getOfflinePlayers()} and kept current with
+ * join events. Names are packed into a single sorted character array instead of keeping an
+ * {@link OfflinePlayer} per player, and players that joined since the index was built are kept
+ * in a small sorted overlay that is merged into the packed names once it grows large.
+ */
+public final class OfflinePlayerIndex implements Listener {
+    private static final int MAX_RECENT = 1024;
+
+    private static volatile OfflinePlayerIndex instance;
+
+    private volatile Names names;
+    private final ConcurrentSkipListMap<String, Entry> recent = new ConcurrentSkipListMap<>();
+    private final PluginBinding binding = new PluginBinding(this, () -> release(this));
+
+    private OfflinePlayerIndex(Names names) {
+        this.names = names;
+    }
+
+    /**
+     * Builds the shared offline player index if it was not built yet, and registers the listener
+     * that keeps it current.
+     * <p>
+     * The listener stays registered while any plugin that initialized the index is enabled. Once all of them
+     * are disabled, the index is discarded and built again by the next initialization, i.E: after a reload.
+     *
+     * @param plugin plugin to register the listener with
+     * @return the shared offline player index
+     */
+    public static synchronized OfflinePlayerIndex initialize(Plugin plugin) {
+        if (instance != null) {
+            instance.binding.bind(plugin);
+            return instance;
+        }
+        OfflinePlayerIndex index = of(Bukkit.getOfflinePlayers());
+        instance = index;
+        index.binding.bind(plugin);
+        return index;
+    }
+
+    /**
+     * Builds an index of the given players, without sharing it or keeping it current.
+     */
+    static OfflinePlayerIndex of(OfflinePlayer[] players) {
+        List<Entry> entries = new ArrayList<>(players.length);
+        for (OfflinePlayer player : players) {
+            String name = player.getName();
+            if (name == null) continue;
+            entries.add(new Entry(name, player.getUniqueId()));
+        }
+        entries.sort(null);
+        return new OfflinePlayerIndex(Names.of(entries));
+    }
+
+    private static synchronized void release(OfflinePlayerIndex index) {
+        if (instance == index) instance = null;
+    }
+
+    /**
+     * Gets the shared offline player index.
+     *
+     * @return the shared offline player index, or null if it was not initialized
+     */
+    @Nullable
+    public static OfflinePlayerIndex getInstance() {
+        return instance;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    private void onJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        add(player.getName(), player.getUniqueId());
+    }
+
+    /**
+     * Adds a player to the index.
+     *
+     * @param name name of the player
+     * @param uuid unique id of the player
+     */
+    public void add(String name, UUID uuid) {
+        if (uuid.equals(getUniqueId(name))) return;
+        recent.put(name.toLowerCase(Locale.ROOT), new Entry(name, uuid));
+        if (recent.size() > MAX_RECENT) {
+            compact();
+        }
+    }
+
+    /**
+     * Merges the recently added players into the packed names.
+     */
+    private synchronized void compact() {
+        if (recent.size() <= MAX_RECENT) return;
+        List<Entry> added = new ArrayList<>(recent.values());
+        Set<UUID> addedIds = new HashSet<>(added.size());
+        added.forEach(entry -> addedIds.add(entry.uuid));
+        Names current = names;
+        List<Entry> merged = new ArrayList<>(current.size() + added.size());
+        int i = 0;
+        int j = 0;
+        while (i < current.size() || j < added.size()) {
+            if (i < current.size() && addedIds.contains(current.uuid(i))) {
+                i++; // Player was renamed, the recent entry wins
+                continue;
+            }
+            if (j >= added.size() || (i < current.size() && current.compareTo(i, added.get(j).name) < 0)) {
+                merged.add(new Entry(current.name(i), current.uuid(i)));
+                i++;
+            } else {
+                Entry entry = added.get(j++);
+                if (i < current.size() && current.compareTo(i, entry.name) == 0) {
+                    i++; // Name was taken over by another player
+                }
+                merged.add(entry);
+            }
+        }
+        names = Names.of(merged);
+        added.forEach(entry -> recent.remove(entry.name.toLowerCase(Locale.ROOT), entry));
+    }
+
+    /**
+     * Gets the unique id of the player with the given name, ignoring case.
+     *
+     * @param name name of the player
+     * @return the unique id of the player, or null if no player with this name has played before
+     */
+    @Nullable
+    public UUID getUniqueId(String name) {
+        Entry entry = recent.get(name.toLowerCase(Locale.ROOT));
+        if (entry != null) return entry.uuid;
+        Names names = this.names;
+        int index = names.lowerBound(name, false);
+        if (index < names.size() && names.compareTo(index, name) == 0) {
+            return names.uuid(index);
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a player with the given name has played before, ignoring case.
+     *
+     * @param name name of the player
+     * @return true if a player with this name has played before
+     */
+    public boolean contains(String name) {
+        return getUniqueId(name) != null;
+    }
+
+    /**
+     * Gets the names that start with the given prefix, ignoring case, in alphabetical order.
+     *
+     * @param prefix prefix of the names
+     * @param limit  maximum number of names to return
+     * @return modifiable list of the matching names
+     */
+    public List<String> getNames(String prefix, int limit) {
+        List<String> list = new ArrayList<>(Math.min(limit, 16));
+        Names names = this.names;
+        int i = names.lowerBound(prefix, false);
+        int end = names.lowerBound(prefix, true);
+        String lowerPrefix = prefix.toLowerCase(Locale.ROOT);
+        Iterator<Entry> recentIterator = recent.tailMap(lowerPrefix).values().iterator();
+        Entry next = nextWithPrefix(recentIterator, lowerPrefix);
+        while (list.size() < limit && (i < end || next != null)) {
+            if (next == null || (i < end && names.compareTo(i, next.name) < 0)) {
+                list.add(names.name(i++));
+            } else {
+                if (i < end && names.compareTo(i, next.name) == 0) i++;
+                list.add(next.name);
+                next = nextWithPrefix(recentIterator, lowerPrefix);
+            }
+        }
+        return list;
+    }
+
+    @Nullable
+    private static Entry nextWithPrefix(Iterator<Entry> iterator, String lowerPrefix) {
+        if (!iterator.hasNext()) return null;
+        Entry entry = iterator.next();
+        return entry.name.toLowerCase(Locale.ROOT).startsWith(lowerPrefix) ? entry : null;
+    }
+
+    /**
+     * Gets the unique id of a random player in the index.
+     *
+     * @return the unique id of a random player, or null if the index is empty
+     */
+    @Nullable
+    public UUID getRandomUniqueId() {
+        Names names = this.names;
+        List<Entry> added = new ArrayList<>(recent.values());
+        int size = names.size() + added.size();
+        if (size == 0) return null;
+        int index = (int) (Math.random() * size);
+        return index < names.size() ? names.uuid(index) : added.get(index - names.size()).uuid;
+    }
+
+    /**
+     * Returns the approximate number of players in the index.
+     *
+     * @return number of players
+     */
+    public int size() {
+        return names.size() + recent.size();
+    }
+
+    /**
+     * A name and unique id pair, ordered by name ignoring case.
+     */
+    private record Entry(String name, UUID uuid) implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry other) {
+            return String.CASE_INSENSITIVE_ORDER.compare(name, other.name);
+        }
+    }
+
+    /**
+     * Immutable names packed into a single character array, sorted ignoring case,
+     * with the unique ids in parallel arrays.
+     */
+    private static final class Names {
+        private final char[] chars;
+        private final int[] offsets;
+        private final long[] mostSignificantBits;
+        private final long[] leastSignificantBits;
+
+        private Names(char[] chars, int[] offsets, long[] mostSignificantBits, long[] leastSignificantBits) {
+            this.chars = chars;
+            this.offsets = offsets;
+            this.mostSignificantBits = mostSignificantBits;
+            this.leastSignificantBits = leastSignificantBits;
+        }
+
+        private static Names of(List<Entry> sortedEntries) {
+            int size = sortedEntries.size();
+            int length = 0;
+            for (Entry entry : sortedEntries) {
+                length += entry.name.length();
+            }
+            char[] chars = new char[length];
+            int[] offsets = new int[size + 1];
+            long[] most = new long[size];
+            long[] least = new long[size];
+            int offset = 0;
+            for (int i = 0; i < size; i++) {
+                Entry entry = sortedEntries.get(i);
+                entry.name.getChars(0, entry.name.length(), chars, offset);
+                offsets[i] = offset;
+                offset += entry.name.length();
+                most[i] = entry.uuid.getMostSignificantBits();
+                least[i] = entry.uuid.getLeastSignificantBits();
+            }
+            offsets[size] = offset;
+            return new Names(chars, offsets, most, least);
+        }
+
+        private int size() {
+            return mostSignificantBits.length;
+        }
+
+        private String name(int index) {
+            return new String(chars, offsets[index], offsets[index + 1] - offsets[index]);
+        }
+
+        private UUID uuid(int index) {
+            return new UUID(mostSignificantBits[index], leastSignificantBits[index]);
+        }
+
+        /**
+         * Compares the name at the given index with the given name, ignoring case.
+         */
+        private int compareTo(int index, String name) {
+            return compareTo(index, name, false);
+        }
+
+        /**
+         * Compares the name at the given index with the given name, ignoring case.
+         * If prefix is true, names that start with the given name compare as equal.
+         */
+        private int compareTo(int index, String name, boolean prefix) {
+            int start = offsets[index];
+            int length = offsets[index + 1] - start;
+            int min = Math.min(length, name.length());
+            for (int i = 0; i < min; i++) {
+                char a = chars[start + i];
+                char b = name.charAt(i);
+                if (a == b) continue;
+                a = Character.toLowerCase(Character.toUpperCase(a));
+                b = Character.toLowerCase(Character.toUpperCase(b));
+                if (a != b) return a - b;
+            }
+            if (prefix && length >= name.length()) return 0;
+            return length - name.length();
+        }
+
+        /**
+         * Finds the index of the first name that is not less than the given name.
+         * If after is true, finds the index of the first name that does not start with
+         * and is not less than the given name.
+         */
+        private int lowerBound(String name, boolean after) {
+            int low = 0;
+            int high = size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int compare = compareTo(mid, name, after);
+                if (compare < 0 || (after && compare == 0)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package me.clickism.subcommandapi.util;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Resolves player names to unique ids without blocking the server thread.
+ * <p>
+ * Names are resolved from the {@link OfflinePlayerIndex} and from a cache seeded with the
+ * server's usercache.json. Names that could not be resolved are remembered for a while,
+ * and unknown names are only looked up asynchronously.
+ * <p>
+ * Both caches are bounded, and only a limited number of names are looked up at once. Names beyond
+ * the limit are rejected instead of looked up, so random names can not flood the asynchronous scheduler.
+ * Once the cache is full, looked up names replace the least recently used ones.
+ */
+public final class OfflinePlayerResolver {
+    private static final String USER_CACHE_FILE = "usercache.json";
+    private static final long NEGATIVE_CACHE_NANOS = TimeUnit.MINUTES.toNanos(5);
+    private static final int MAX_CACHED = 16384;
+    private static final int MAX_MISSES = 4096;
+    private static final int MAX_LOOKUPS = 16;
+
+    private static volatile OfflinePlayerResolver instance;
+
+    private final PluginBinding binding = new PluginBinding(null, () -> release(this));
+    private final Map<String, UUID> cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, UUID> eldest) {
+            return size() > MAX_CACHED;
+        }
+    });
+    private final Map<String, Long> misses = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<UUID>> lookups = new ConcurrentHashMap<>();
+
+    private OfflinePlayerResolver() {
+    }
+
+    /**
+     * Creates the shared resolver if it was not created yet, and starts seeding its cache
+     * from usercache.json asynchronously.
+     * <p>
+     * Lookups are run with any enabled plugin that initialized the resolver. Once all of them are disabled,
+     * the resolver is discarded and created again by the next initialization, i.E: after a reload.
+     *
+     * @param plugin plugin to run the asynchronous lookups with
+     * @return the shared resolver
+     */
+    public static synchronized OfflinePlayerResolver initialize(Plugin plugin) {
+        if (instance != null) {
+            instance.binding.bind(plugin);
+            return instance;
+        }
+        OfflinePlayerResolver resolver = new OfflinePlayerResolver();
+        resolver.binding.bind(plugin);
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> resolver.loadUserCache(plugin));
+        instance = resolver;
+        return resolver;
+    }
+
+    private static synchronized void release(OfflinePlayerResolver resolver) {
+        if (instance == resolver) instance = null;
+    }
+
+    /**
+     * Gets the shared resolver.
+     *
+     * @return the shared resolver, or null if it was not initialized
+     */
+    @Nullable
+    public static OfflinePlayerResolver getInstance() {
+        return instance;
+    }
+
+    private void loadUserCache(Plugin plugin) {
+        File file = new File(Bukkit.getWorldContainer(), USER_CACHE_FILE);
+        if (!file.isFile()) return;
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            for (JsonElement element : JsonParser.parseReader(reader).getAsJsonArray()) {
+                JsonObject object = element.getAsJsonObject();
+                String name = object.get("name").getAsString();
+                UUID uuid = UUID.fromString(object.get("uuid").getAsString());
+                // Seeds only fill the cache, they never replace each other
+                if (cache.size() >= MAX_CACHED) break;
+                cache.putIfAbsent(name.toLowerCase(Locale.ROOT), uuid);
+            }
+        } catch (IOException | RuntimeException exception) {
+            plugin.getLogger().log(Level.WARNING, "Could not read " + USER_CACHE_FILE + ": " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Gets the unique id of the player with the given name if it is known, without looking it up.
+     *
+     * @param name name of the player
+     * @return the unique id of the player, or null if it is not known
+     */
+    @Nullable
+    public UUID getCachedUniqueId(String name) {
+        OfflinePlayerIndex index = OfflinePlayerIndex.getInstance();
+        UUID uuid = index != null ? index.getUniqueId(name) : null;
+        if (uuid != null) return uuid;
+        if (!Bukkit.getOnlineMode()) {
+            return getOfflineUniqueId(name);
+        }
+        return cache.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Checks whether the given name was recently looked up and could not be resolved.
+     *
+     * @param name name of the player
+     * @return true if the name is known to not belong to any player
+     */
+    public boolean isUnknown(String name) {
+        String key = name.toLowerCase(Locale.ROOT);
+        Long expiry = misses.get(key);
+        if (expiry == null) return false;
+        if (System.nanoTime() - expiry < 0) return true;
+        misses.remove(key, expiry);
+        return false;
+    }
+
+    /**
+     * Resolves the unique id of the player with the given name.
+     * If the name is not known, it is looked up asynchronously.
+     *
+     * @param name name of the player
+     * @return future that completes with the unique id of the player, or with null if there is no such player.
+     * Completes exceptionally with a {@link RejectedExecutionException} if too many names are being looked up.
+     */
+    public CompletableFuture<UUID> resolve(String name) {
+        UUID uuid = getCachedUniqueId(name);
+        if (uuid != null) return CompletableFuture.completedFuture(uuid);
+        if (isUnknown(name)) return CompletableFuture.completedFuture(null);
+        String key = name.toLowerCase(Locale.ROOT);
+        CompletableFuture<UUID> pending = lookups.get(key);
+        if (pending != null) return pending;
+        Plugin plugin = binding.getOwner();
+        if (plugin == null || lookups.size() >= MAX_LOOKUPS) {
+            return CompletableFuture.failedFuture(
+                    new RejectedExecutionException("Too many players are being looked up"));
+        }
+        return lookups.computeIfAbsent(key, k -> {
+            CompletableFuture<UUID> future = new CompletableFuture<>();
+            try {
+                Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> lookup(plugin, name, future));
+            } catch (RuntimeException exception) {
+                future.completeExceptionally(new RejectedExecutionException(exception));
+            }
+            return future;
+        });
+    }
+
+    private void lookup(Plugin plugin, String name, CompletableFuture<UUID> future) {
+        String key = name.toLowerCase(Locale.ROOT);
+        UUID uuid = null;
+        try {
+            @SuppressWarnings("deprecation")
+            OfflinePlayer player = Bukkit.getOfflinePlayer(name);
+            // Unknown accounts resolve to the offline mode id
+            if (player.hasPlayedBefore() || !player.getUniqueId().equals(getOfflineUniqueId(name))) {
+                uuid = player.getUniqueId();
+            }
+        } catch (RuntimeException exception) {
+            plugin.getLogger().log(Level.WARNING, "Could not look up player " + name + ": " + exception.getMessage());
+        }
+        if (uuid != null) {
+            cache.put(key, uuid);
+        } else {
+            rememberMiss(key);
+        }
+        lookups.remove(key, future);
+        future.complete(uuid);
+    }
+
+    /**
+     * Remembers that the name could not be resolved. Expired misses are swept once the misses are full,
+     * and the name is not remembered if they are still full afterwards.
+     */
+    private void rememberMiss(String key) {
+        long now = System.nanoTime();
+        if (misses.size() >= MAX_MISSES) {
+            misses.values().removeIf(expiry -> now - expiry >= 0);
+            if (misses.size() >= MAX_MISSES) return;
+        }
+        misses.put(key, now + NEGATIVE_CACHE_NANOS);
+    }
+
+    private static UUID getOfflineUniqueId(String name) {
+        return UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,95 @@
+package me.clickism.subcommandapi.util;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Binds a listener that is shared by several plugins, i.E: a shared index, to one of the plugins.
+ * <p>
+ * The listener is registered with the first plugin that is bound. When that plugin is disabled, the listener
+ * is registered with another bound plugin that is still enabled. Once all bound plugins are disabled,
+ * the binding is released, so the shared object can be discarded and built again after a reload.
+ */
+public final class PluginBinding {
+    @Nullable
+    private final Listener listener;
+    private final Runnable onRelease;
+    private final Set<Plugin> plugins = new LinkedHashSet<>();
+    @Nullable
+    private Plugin owner;
+
+    /**
+     * Creates a new binding of the listener.
+     *
+     * @param listener  listener to register with the owner of the binding, or null to only track the owner
+     * @param onRelease called once all bound plugins are disabled
+     */
+    public PluginBinding(@Nullable Listener listener, Runnable onRelease) {
+        this.listener = listener;
+        this.onRelease = onRelease;
+    }
+
+    /**
+     * Binds the plugin. Registers the listener with the plugin if no other plugin is bound.
+     * <p>
+     * The plugin must be enabled, listeners can not be registered for plugins that are still loading.
+     *
+     * @param plugin plugin to bind
+     */
+    public synchronized void bind(Plugin plugin) {
+        if (!plugins.add(plugin)) return;
+        Bukkit.getPluginManager().registerEvents(new DisableListener(plugin), plugin);
+        if (owner == null) {
+            owner = plugin;
+            if (listener != null) Bukkit.getPluginManager().registerEvents(listener, plugin);
+        }
+    }
+
+    private synchronized void unbind(Plugin plugin) {
+        if (!plugins.remove(plugin) || owner != plugin) return;
+        owner = null;
+        for (Plugin candidate : plugins) {
+            if (candidate.isEnabled()) {
+                owner = candidate;
+                if (listener != null) Bukkit.getPluginManager().registerEvents(listener, candidate);
+                return;
+            }
+        }
+        plugins.clear();
+        onRelease.run();
+    }
+
+    /**
+     * Gets the plugin the listener is registered with, i.E: to schedule tasks with.
+     *
+     * @return the owner, or null if no enabled plugin is bound
+     */
+    @Nullable
+    public synchronized Plugin getOwner() {
+        return owner;
+    }
+
+    /**
+     * Unbinds a plugin once it is disabled.
+     */
+    private final class DisableListener implements Listener {
+        private final Plugin plugin;
+
+        private DisableListener(Plugin plugin) {
+            this.plugin = plugin;
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        private void onDisable(PluginDisableEvent event) {
+            if (event.getPlugin() == plugin) unbind(plugin);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package me.clickism.subcommandapi.util;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * An immutable, closed set of named values that are looked up by name, ignoring case.
+ * <p>
+ * Names are sorted once when the domain is created, and looked up with a binary search that compares
+ * names ignoring case without allocating. The completion index and the joined names, i.E. for error
+ * messages, are also built once.
+ *
+ * @param <T> type of the values
+ */
+public final class ValueDomain<T> {
+    private final String[] names;
+    private final Object[] values;
+    private final CompletionIndex completion;
+    private final String joinedNames;
+
+    private ValueDomain(String[] names, Object[] values, List<String> orderedNames) {
+        this.names = names;
+        this.values = values;
+        this.completion = CompletionIndex.of(orderedNames);
+        this.joinedNames = String.join(", ", orderedNames);
+    }
+
+    /**
+     * Creates a domain of the given names and values. If multiple names are equal ignoring case,
+     * the first one takes precedence.
+     *
+     * @param values values by name, in the order the names should be joined in
+     * @param <T>    type of the values
+     * @return value domain
+     */
+    public static <T> ValueDomain<T> of(Map<String, T> values) {
+        List<String> orderedNames = new ArrayList<>(values.size());
+        Integer[] order = new Integer[values.size()];
+        String[] keys = new String[values.size()];
+        Object[] objects = new Object[values.size()];
+        int size = 0;
+        for (Map.Entry<String, T> entry : values.entrySet()) {
+            orderedNames.add(entry.getKey());
+            keys[size] = entry.getKey();
+            objects[size] = entry.getValue();
+            order[size] = size;
+            size++;
+        }
+        // Stable sort, so the first of the names that are equal ignoring case comes first
+        Arrays.sort(order, (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(keys[a], keys[b]));
+        String[] names = new String[size];
+        Object[] sortedValues = new Object[size];
+        int unique = 0;
+        for (int i = 0; i < size; i++) {
+            String name = keys[order[i]];
+            if (unique > 0 && names[unique - 1].equalsIgnoreCase(name)) continue;
+            names[unique] = name;
+            sortedValues[unique] = objects[order[i]];
+            unique++;
+        }
+        return new ValueDomain<>(Arrays.copyOf(names, unique), Arrays.copyOf(sortedValues, unique), orderedNames);
+    }
+
+    /**
+     * Creates a domain of the given names, where each name is its own value.
+     *
+     * @param names names
+     * @return value domain
+     */
+    public static ValueDomain<String> of(Collection<String> names) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String name : names) {
+            values.putIfAbsent(name, name);
+        }
+        return of(values);
+    }
+
+    /**
+     * Creates a domain of the constants of the given enum, named by their lower-cased names.
+     *
+     * @param enumClass enum class
+     * @param <E>       type of the enum
+     * @return value domain
+     */
+    public static <E extends Enum<E>> ValueDomain<E> ofEnum(Class<E> enumClass) {
+        Map<String, E> values = new LinkedHashMap<>();
+        for (E constant : enumClass.getEnumConstants()) {
+            values.putIfAbsent(constant.name().toLowerCase(Locale.ROOT), constant);
+        }
+        return of(values);
+    }
+
+    /**
+     * Gets the value with the given name, ignoring case.
+     *
+     * @param name name of the value
+     * @return the value, or null if there is no value with this name
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public T get(String name) {
+        int low = 0;
+        int high = names.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int compare = String.CASE_INSENSITIVE_ORDER.compare(names[mid], name);
+            if (compare < 0) {
+                low = mid + 1;
+            } else if (compare > 0) {
+                high = mid - 1;
+            } else {
+                return (T) values[mid];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether there is a value with the given name, ignoring case.
+     *
+     * @param name name of the value
+     * @return true if there is a value with this name
+     */
+    public boolean contains(String name) {
+        return get(name) != null;
+    }
+
+    /**
+     * Gets the completion index of the names.
+     *
+     * @return immutable completion index of the names
+     */
+    public CompletionIndex getCompletion() {
+        return completion;
+    }
+
+    /**
+     * Gets the names joined with commas, in the order they were given.
+     *
+     * @return joined names
+     */
+    public String getJoinedNames() {
+        return joinedNames;
+    }
+
+    /**
+     * Returns the number of values in the domain.
+     *
+     * @return number of values
+     */
+    public int size() {
+        return names.length;
+    }
+}
@@ -0,0 +1,200 @@
+package me.clickism.subcommandapi;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.IllegalPluginAccessException;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A headless stub of the Bukkit server for tests.
+ * <p>
+ * The server, senders and players are dynamic proxies that answer the few methods used by the library
+ * and return default values for everything else. Timers scheduled with the server only run on {@link #tick()},
+ * asynchronous tasks run at once. Like on a server, listeners can only be registered for enabled plugins.
+ */
+public final class TestServer {
+    private static final Logger LOGGER = Logger.getLogger("Test");
+    private static final List<Runnable> TIMERS = new CopyOnWriteArrayList<>();
+    private static final Map<Plugin, List<Listener>> LISTENERS = new ConcurrentHashMap<>();
+
+    static {
+        LOGGER.setLevel(Level.OFF);
+    }
+
+    private TestServer() {
+    }
+
+    /**
+     * Installs the stub server if no server is installed yet.
+     */
+    public static synchronized void install() {
+        if (Bukkit.getServer() != null) return;
+        Bukkit.setServer(proxy(Server.class, (method, args) -> switch (method.getName()) {
+            case "getLogger" -> LOGGER;
+            case "getScheduler" -> proxy(BukkitScheduler.class, TestServer::schedule);
+            case "getPluginManager" -> proxy(PluginManager.class, TestServer::manage);
+            default -> defaultValue(method);
+        }));
+    }
+
+    /**
+     * Runs all timers once, like a server tick.
+     */
+    public static void tick() {
+        TIMERS.forEach(Runnable::run);
+    }
+
+    /**
+     * Gets the listeners registered for the plugin.
+     *
+     * @param plugin plugin of the listeners
+     * @return listeners of the plugin
+     */
+    public static List<Listener> getListeners(Plugin plugin) {
+        return LISTENERS.getOrDefault(plugin, List.of());
+    }
+
+    private static Object manage(Method method, Object[] args) {
+        if (!method.getName().equals("registerEvents")) return defaultValue(method);
+        Plugin plugin = (Plugin) args[1];
+        if (!plugin.isEnabled()) {
+            throw new IllegalPluginAccessException("Plugin attempted to register listener while not enabled");
+        }
+        LISTENERS.computeIfAbsent(plugin, key -> new CopyOnWriteArrayList<>()).add((Listener) args[0]);
+        return null;
+    }
+
+    private static Object schedule(Method method, Object[] args) {
+        if (method.getName().equals("runTaskAsynchronously") && args[1] instanceof Runnable task) {
+            task.run();
+            return proxy(BukkitTask.class, (taskMethod, taskArgs) -> defaultValue(taskMethod));
+        }
+        if (!method.getName().equals("runTaskTimer") || !(args[1] instanceof Runnable timer)) {
+            throw new UnsupportedOperationException(method.getName());
+        }
+        TIMERS.add(timer);
+        return proxy(BukkitTask.class, (taskMethod, taskArgs) -> switch (taskMethod.getName()) {
+            case "cancel" -> {
+                TIMERS.remove(timer);
+                yield null;
+            }
+            case "isCancelled" -> !TIMERS.contains(timer);
+            default -> defaultValue(taskMethod);
+        });
+    }
+
+    /**
+     * Creates a plugin with the given name and state.
+     *
+     * @param name    name of the plugin
+     * @param enabled whether the plugin is enabled
+     * @return plugin
+     */
+    public static Plugin plugin(String name, BooleanSupplier enabled) {
+        return proxy(Plugin.class, (method, args) -> switch (method.getName()) {
+            case "getName" -> name;
+            case "getLogger" -> LOGGER;
+            case "isEnabled" -> enabled.getAsBoolean();
+            default -> defaultValue(method);
+        });
+    }
+
+    /**
+     * Creates a command sender with the given name that is an operator and ignores messages.
+     *
+     * @param name name of the sender
+     * @return command sender
+     */
+    public static CommandSender sender(String name) {
+        return proxy(CommandSender.class, (method, args) -> switch (method.getName()) {
+            case "getName" -> name;
+            case "isOp", "hasPermission" -> true;
+            default -> defaultValue(method);
+        });
+    }
+
+    /**
+     * Creates a player with the given name and online status.
+     *
+     * @param name   name of the player
+     * @param online whether the player is online
+     * @return player
+     */
+    public static Player player(String name, BooleanSupplier online) {
+        UUID uuid = UUID.nameUUIDFromBytes(name.getBytes());
+        return proxy(Player.class, (method, args) -> switch (method.getName()) {
+            case "getName" -> name;
+            case "getUniqueId" -> uuid;
+            case "isOnline" -> online.getAsBoolean();
+            case "isOp", "hasPermission" -> true;
+            default -> defaultValue(method);
+        });
+    }
+
+    /**
+     * Creates a command with the given label.
+     *
+     * @param label label of the command
+     * @return command
+     */
+    public static Command command(String label) {
+        return new Command(label) {
+            @Override
+            public boolean execute(@NotNull CommandSender sender, @NotNull String commandLabel, @NotNull String[] args) {
+                return false;
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(Method method, Object[] args);
+    }
+
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) ->
+                switch (method.getName()) {
+                    case "equals" -> self == args[0];
+                    case "hashCode" -> System.identityHashCode(self);
+                    case "toString" -> type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(self));
+                    default -> handler.invoke(method, args);
+                });
+        return type.cast(proxy);
+    }
+
+    private static Object defaultValue(Method method) {
+        Class<?> type = method.getReturnType();
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0D;
+        if (type == float.class) return 0F;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        if (type == char.class) return (char) 0;
+        if (type == String.class) return "Test";
+        if (type == List.class || type == Collection.class) return List.of();
+        if (type == Set.class) return Set.of();
+        if (type == Map.class) return Map.of();
+        if (type.isArray()) return Array.newInstance(type.getComponentType(), 0);
+        return null;
+    }
+}
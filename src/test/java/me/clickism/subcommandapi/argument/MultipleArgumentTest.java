@@ -0,0 +1,66 @@
+package me.clickism.subcommandapi.argument;
+
+import me.clickism.subcommandapi.TestServer;
+import me.clickism.subcommandapi.command.CommandException;
+import me.clickism.subcommandapi.command.InvalidInputException;
+import org.bukkit.command.CommandSender;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MultipleArgumentTest {
+    private static final List<String> OPTIONS = List.of("a", "b", "c");
+
+    private final CommandSender sender = TestServer.sender("sender");
+    private final MultipleArgument<String> argument = new MultipleArgument<>("letters", true, name -> name) {
+        @Override
+        public List<String> getOptions() {
+            return new ArrayList<>(OPTIONS);
+        }
+
+        @Override
+        protected List<String> getOptionsView() {
+            return OPTIONS;
+        }
+
+        @Override
+        public String parseOption(CommandSender sender, String arg) throws CommandException {
+            if (!OPTIONS.contains(arg)) {
+                throw new InvalidInputException("Invalid letter: &l" + arg);
+            }
+            return arg;
+        }
+    };
+
+    @Test
+    void allSelectorReturnsModifiableOptions() {
+        List<String> all = argument.parse(sender, "@a");
+        assertEquals(OPTIONS, all);
+        assertNotSame(OPTIONS, all);
+        all.add("d");
+    }
+
+    @Test
+    void exclusionsFilterOptions() {
+        assertEquals(List.of("b"), argument.parse(sender, "!a,c"));
+        assertEquals(List.of("b"), argument.parse(sender, "!a,!c"));
+    }
+
+    @Test
+    void emptyExclusionIsInvalid() {
+        assertThrows(InvalidInputException.class, () -> argument.parse(sender, "!"));
+        assertThrows(InvalidInputException.class, () -> argument.parse(sender, "!,"));
+        assertThrows(InvalidInputException.class, () -> argument.parse(sender, "@a!"));
+    }
+
+    @Test
+    void listsAreSplitAtCommas() {
+        assertEquals(List.of("a", "c"), argument.parse(sender, "a,,c"));
+        assertThrows(InvalidInputException.class, () -> argument.parse(sender, ","));
+    }
+}
@@ -0,0 +1,59 @@
+package me.clickism.subcommandapi.argument;
+
+import me.clickism.subcommandapi.TestServer;
+import org.bukkit.command.CommandSender;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PlayersArgumentTest {
+    private final CommandSender sender = TestServer.sender("sender");
+
+    @Test
+    void defaultCompletionIncludesSelectors() {
+        TestServer.install();
+        PlayersArgument argument = new PlayersArgument("players", true);
+        assertEquals(List.of("@a", "!", "@r", "@r<count>", "@p", "@s"), argument.getTabCompletion(sender, ""));
+    }
+
+    @Test
+    void legacyDefaultCompletionKeepsSelectors() {
+        TestServer.install();
+        PlayersArgument argument = new PlayersArgument("players", true) {
+            @Override
+            protected List<String> getDefaultTabCompletion() {
+                List<String> list = super.getDefaultTabCompletion();
+                list.add("@custom");
+                return list;
+            }
+        };
+        assertEquals(List.of("@a", "!", "@r", "@r<count>", "@p", "@s", "@custom"),
+                argument.getTabCompletion(sender, "x"));
+    }
+
+    @Test
+    void newerOverrideTakesPrecedence() {
+        TestServer.install();
+        PlayersArgument legacy = new PlayersArgument("players", true) {
+            @Override
+            protected List<String> getDefaultTabCompletion() {
+                return List.of("legacy");
+            }
+        };
+        PlayersArgument argument = new PlayersArgument("players", true) {
+            @Override
+            protected List<String> getDefaultTabCompletion() {
+                return List.of("legacy");
+            }
+
+            @Override
+            protected List<String> getDefaultTabCompletion(String arg) {
+                return List.of("current");
+            }
+        };
+        assertEquals(List.of("legacy"), legacy.getTabCompletion(sender, ""));
+        assertEquals(List.of("current"), argument.getTabCompletion(sender, ""));
+    }
+}
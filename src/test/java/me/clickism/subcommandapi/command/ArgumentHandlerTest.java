@@ -0,0 +1,181 @@
+package me.clickism.subcommandapi.command;
+
+import me.clickism.subcommandapi.TestServer;
+import me.clickism.subcommandapi.argument.Argument;
+import me.clickism.subcommandapi.argument.IntegerArgument;
+import me.clickism.subcommandapi.argument.StringArgument;
+import org.bukkit.command.CommandSender;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArgumentHandlerTest {
+    private final CommandSender sender = TestServer.sender("sender");
+
+    private static Subcommand command(Argument<?>... arguments) {
+        Subcommand subcommand = new Subcommand("command", false) {
+            @Override
+            protected CommandResult execute(CommandStack trace, CommandSender sender, ArgumentHandler argHandler) {
+                return CommandResult.success();
+            }
+        };
+        for (Argument<?> argument : arguments) {
+            subcommand.addArgument(argument);
+        }
+        return subcommand;
+    }
+
+    @Test
+    void primitivesAndValuesAreStoredInSlots() {
+        IntegerArgument count = new IntegerArgument("count", true);
+        StringArgument name = new StringArgument("name", true);
+        StringArgument note = new StringArgument("note", false);
+        ArgumentHandler handler = new ArgumentHandler(sender, command(count, name, note), new String[]{"5", "x"});
+        assertEquals(5, handler.getInt(count));
+        assertEquals(Integer.valueOf(5), handler.get(count));
+        assertEquals("x", handler.get(name));
+        assertFalse(handler.has(note));
+        assertNull(handler.getOrNull(note));
+        assertEquals("default", handler.getOrDefault(note, "default"));
+        assertThrows(CommandException.class, () -> handler.get(note));
+    }
+
+    @Test
+    void overriddenParseOfPrimitiveIsUsed() {
+        IntegerArgument positive = new IntegerArgument("count", true) {
+            @Override
+            public Integer parse(CommandSender sender, String arg) throws CommandException {
+                int value = super.parse(sender, arg);
+                if (value < 1) throw new InvalidInputException("Count must be positive: &l" + arg);
+                return value;
+            }
+        };
+        Subcommand command = command(positive);
+        assertEquals(3, new ArgumentHandler(sender, command, new String[]{"3"}).getInt(positive));
+        assertThrows(InvalidInputException.class, () -> new ArgumentHandler(sender, command, new String[]{"-1"}));
+    }
+
+    @Test
+    void lazyArgumentsAreParsedOnceWhenRequested() {
+        AtomicInteger parses = new AtomicInteger();
+        StringArgument name = new StringArgument("name", true) {
+            @Override
+            public String parse(CommandSender sender, String arg) throws CommandException {
+                parses.incrementAndGet();
+                if (arg.isEmpty()) throw new InvalidInputException("Invalid name: &l" + arg);
+                return arg;
+            }
+        };
+        StringArgument other = new StringArgument("other", true);
+        Subcommand command = command(name, other).setLazyArguments();
+
+        ArgumentHandler valid = new ArgumentHandler(sender, command, new String[]{"x", "y"});
+        assertEquals(0, parses.get());
+        assertEquals("x", valid.get(name));
+        assertEquals("x", valid.get(name));
+        assertEquals(1, parses.get());
+
+        ArgumentHandler invalid = new ArgumentHandler(sender, command, new String[]{"", "y"});
+        assertTrue(invalid.has(name));
+        CommandException exception = assertThrows(CommandException.class, () -> invalid.get(name));
+        assertSame(exception, assertThrows(CommandException.class, () -> invalid.get(name)));
+        assertNull(invalid.getOrNull(name));
+        assertEquals("y", invalid.get(other));
+        assertEquals(2, parses.get());
+        // The number of arguments is still validated up front
+        assertThrows(InvalidInputException.class, () -> new ArgumentHandler(sender, command, new String[]{"x"}));
+    }
+
+    @Test
+    void asyncArgumentsAreResolvedOnceCompleted() {
+        CompletableFuture<String> lookup = new CompletableFuture<>();
+        StringArgument name = new StringArgument("name", true) {
+            @Override
+            public boolean isParsedAsync() {
+                return true;
+            }
+
+            @Override
+            public CompletableFuture<String> parseAsync(CommandSender sender, String arg) {
+                return lookup;
+            }
+        };
+        ArgumentHandler handler = new ArgumentHandler(sender, command(name), new String[]{"x"});
+        assertTrue(handler.hasResolvingArguments());
+        CompletableFuture<Void> awaited = handler.awaitArguments();
+        assertFalse(awaited.isDone());
+
+        lookup.complete("resolved");
+        assertTrue(awaited.isDone());
+        handler.resolveArguments();
+        assertFalse(handler.hasResolvingArguments());
+        assertEquals("resolved", handler.get(name));
+    }
+
+    @Test
+    void invalidAsyncArgumentFailsResolution() {
+        CompletableFuture<String> lookup = new CompletableFuture<>();
+        StringArgument name = new StringArgument("name", true) {
+            @Override
+            public boolean isParsedAsync() {
+                return true;
+            }
+
+            @Override
+            public CompletableFuture<String> parseAsync(CommandSender sender, String arg) {
+                return lookup;
+            }
+        };
+        ArgumentHandler handler = new ArgumentHandler(sender, command(name), new String[]{"x"});
+        lookup.completeExceptionally(new InvalidInputException("Unknown name: &lx"));
+        // Completes even though the argument is invalid
+        handler.awaitArguments().join();
+        InvalidInputException exception = assertThrows(InvalidInputException.class, handler::resolveArguments);
+        assertEquals("Unknown name: &lx", exception.getMessage());
+    }
+
+    @Test
+    void deferredArgumentsAreParsedAgainOnceResolved() {
+        CompletableFuture<String> lookup = new CompletableFuture<>();
+        List<String> parsed = new ArrayList<>();
+        StringArgument name = new StringArgument("name", true) {
+            @Override
+            public String parse(CommandSender sender, String arg) throws CommandException {
+                parsed.add(arg);
+                if (!lookup.isDone()) throw new DeferredCommandException("Looking up " + arg, lookup);
+                return lookup.join();
+            }
+        };
+        ArgumentHandler handler = new ArgumentHandler(sender, command(name), new String[]{"x"});
+        assertTrue(handler.hasResolvingArguments());
+        assertFalse(handler.awaitArguments().isDone());
+
+        lookup.complete("resolved");
+        handler.resolveArguments();
+        assertEquals("resolved", handler.get(name));
+        assertEquals(List.of("x", "x"), parsed);
+    }
+
+    @Test
+    void nestedHandlersReadArgumentsOfEnclosingHandlers() {
+        StringArgument outer = new StringArgument("outer", true);
+        StringArgument inner = new StringArgument("inner", true);
+        Subcommand group = command(outer);
+        Subcommand child = command(inner);
+        ArgumentHandler handler = new ArgumentHandler(sender, group, new String[]{"a", "b"});
+        ArgumentHandler trimmed = handler.trimmed(child);
+        assertEquals("b", trimmed.get(inner));
+        assertEquals("a", trimmed.get(outer));
+        assertFalse(handler.has(inner));
+    }
+}
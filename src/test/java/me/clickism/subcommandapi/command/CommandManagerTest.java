@@ -0,0 +1,193 @@
+package me.clickism.subcommandapi.command;
+
+import me.clickism.subcommandapi.TestServer;
+import me.clickism.subcommandapi.argument.Argument;
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommandManagerTest {
+    @Test
+    void asyncCommandsOfSenderKeepTheirOrder() throws InterruptedException {
+        TestServer.install();
+        List<String> executed = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(2);
+        CommandManager manager = new CommandManager() {
+            @Override
+            protected void sendMessage(CommandSender sender, CommandResult.CommandResultType type, String message) {
+                done.countDown();
+            }
+        };
+        // The first command waits for a slow asynchronous argument, then executes asynchronously
+        manager.registerCommand(new RecordingCommand("first", executed, new SlowArgument(200)));
+        manager.registerCommand(new RecordingCommand("second", executed, null));
+
+        CommandSender sender = TestServer.sender("sender");
+        manager.onCommand(sender, TestServer.command("first"), "first", new String[]{"value"});
+        manager.onCommand(sender, TestServer.command("second"), "second", new String[0]);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("first", "second"), executed);
+    }
+
+    @Test
+    void timedOutCommandKeepsTheQueueUntilItFinishes() throws InterruptedException {
+        TestServer.install();
+        List<String> events = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(2);
+        CommandManager manager = new CommandManager() {
+            @Override
+            protected void sendMessage(CommandSender sender, CommandResult.CommandResultType type, String message) {
+                events.add(message);
+                done.countDown();
+            }
+        };
+        CompletableFuture<CommandResult> slowExecution = new CompletableFuture<>();
+        AsyncSubcommand slow = new AsyncSubcommand("slow") {
+            @Override
+            protected CompletableFuture<CommandResult> executeAsync(CommandStack trace, CommandSender sender,
+                                                                    ArgumentHandler argHandler) {
+                events.add("slow started");
+                return slowExecution;
+            }
+        };
+        slow.setTimeout(50, TimeUnit.MILLISECONDS);
+        manager.registerCommand(slow);
+        manager.registerCommand(new RecordingCommand("next", events, null));
+
+        CommandSender sender = TestServer.sender("sender");
+        manager.onCommand(sender, TestServer.command("slow"), "slow", new String[0]);
+        manager.onCommand(sender, TestServer.command("next"), "next", new String[0]);
+        Thread.sleep(300);
+        // The sender was told about the timeout, but the next command waits for the execution
+        assertEquals(List.of("slow started", "This command took too long to complete."), events);
+
+        slowExecution.complete(CommandResult.success());
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("slow started", "This command took too long to complete.", "next", "next"), events);
+    }
+
+    @Test
+    void metricsAreRecordedPerSubcommand() {
+        TestServer.install();
+        CommandManager manager = new CommandManager() {
+            @Override
+            protected void sendMessage(CommandSender sender, CommandResult.CommandResultType type, String message) {
+            }
+        };
+        Subcommand child = new Subcommand("child", false) {
+            @Override
+            protected CommandResult execute(CommandStack trace, CommandSender sender, ArgumentHandler argHandler) {
+                return CommandResult.success();
+            }
+        };
+        manager.registerCommand(new SubcommandGroup("root").addSubcommand(child));
+
+        CommandSender sender = TestServer.sender("sender");
+        manager.onCommand(sender, TestServer.command("root"), "root", new String[]{"child"});
+        manager.onCommand(sender, TestServer.command("root"), "root", new String[]{"CHILD"});
+
+        assertEquals("/root child", child.getPath());
+        assertEquals(2, manager.getMetrics().getOrCreate(child).getInvocations());
+        assertEquals(2, manager.getMetrics().get("/root child").getInvocations());
+    }
+
+    @Test
+    void jobsAreRejectedWithoutPlugin() {
+        TestServer.install();
+        List<String> messages = new ArrayList<>();
+        CommandManager manager = new CommandManager() {
+            @Override
+            protected void sendMessage(CommandSender sender, CommandResult.CommandResultType type, String message) {
+                messages.add(message);
+            }
+        };
+        AtomicInteger steps = new AtomicInteger();
+        manager.registerCommand(new Subcommand("purge", false) {
+            @Override
+            protected CommandResult execute(CommandStack trace, CommandSender sender, ArgumentHandler argHandler) {
+                return CommandResult.job(() -> steps.incrementAndGet() < 1000);
+            }
+        });
+
+        manager.onCommand(TestServer.sender("sender"), TestServer.command("purge"), "purge", new String[0]);
+
+        assertEquals(List.of("Long-running commands can not run without a plugin."), messages);
+        assertEquals(0, steps.get());
+    }
+
+    @Test
+    void pluginIsBoundOnceEnabled() {
+        TestServer.install();
+        AtomicBoolean enabled = new AtomicBoolean();
+        Plugin plugin = TestServer.plugin("loading", enabled::get);
+        CommandManager manager = new CommandManager(plugin);
+        assertEquals(List.of(), TestServer.getListeners(plugin));
+
+        enabled.set(true);
+        manager.registerCommand(new RecordingCommand("command", new ArrayList<>(), null));
+        int listeners = TestServer.getListeners(plugin).size();
+        assertTrue(listeners > 0);
+        manager.registerCommand(new RecordingCommand("other", new ArrayList<>(), null));
+        assertEquals(listeners, TestServer.getListeners(plugin).size());
+    }
+
+    private static final class RecordingCommand extends AsyncSubcommand {
+        private final List<String> executed;
+
+        private RecordingCommand(String label, List<String> executed, Argument<?> argument) {
+            super(label);
+            this.executed = executed;
+            if (argument != null) addArgument(argument);
+        }
+
+        @Override
+        protected CompletableFuture<CommandResult> executeAsync(CommandStack trace, CommandSender sender,
+                                                                ArgumentHandler argHandler) {
+            executed.add(getLabel());
+            return CompletableFuture.completedFuture(CommandResult.success(getLabel()));
+        }
+    }
+
+    private static final class SlowArgument extends Argument<String> {
+        private final long delayMillis;
+
+        private SlowArgument(long delayMillis) {
+            super("value", true);
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public List<String> getTabCompletion(CommandSender sender, String arg) {
+            return List.of();
+        }
+
+        @Override
+        public String parse(CommandSender sender, String arg) {
+            return arg;
+        }
+
+        @Override
+        public boolean isParsedAsync() {
+            return true;
+        }
+
+        @Override
+        public CompletableFuture<String> parseAsync(CommandSender sender, String arg) {
+            return CompletableFuture.supplyAsync(() -> arg,
+                    CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS));
+        }
+    }
+}
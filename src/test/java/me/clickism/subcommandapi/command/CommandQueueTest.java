@@ -0,0 +1,96 @@
+package me.clickism.subcommandapi.command;
+
+import me.clickism.subcommandapi.TestServer;
+import org.bukkit.command.CommandSender;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommandQueueTest {
+    @Test
+    void commandsOfSenderStartInOrder() {
+        CommandQueue queue = new CommandQueue();
+        CommandSender sender = TestServer.sender("sender");
+        List<Integer> started = new ArrayList<>();
+        List<CommandQueue.Slot> slots = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            int command = i;
+            assertTrue(queue.submit(sender, slot -> {
+                started.add(command);
+                slots.add(slot);
+            }));
+        }
+        assertEquals(List.of(0), started);
+        assertEquals(4, queue.getQueued());
+        for (int i = 0; i < 4; i++) {
+            slots.get(i).release();
+        }
+        assertEquals(List.of(0, 1, 2, 3, 4), started);
+        slots.get(4).release();
+        assertEquals(0, queue.getInFlight());
+    }
+
+    @Test
+    void sendersDoNotWaitForEachOther() {
+        CommandQueue queue = new CommandQueue();
+        List<String> started = new ArrayList<>();
+        queue.submit(TestServer.sender("first"), slot -> started.add("first"));
+        queue.submit(TestServer.sender("second"), slot -> started.add("second"));
+        assertEquals(List.of("first", "second"), started);
+    }
+
+    @Test
+    void rejectsCommandsBeyondMaxDepth() {
+        CommandQueue queue = new CommandQueue();
+        queue.setMaxDepth(2);
+        CommandSender sender = TestServer.sender("sender");
+        assertTrue(queue.submit(sender, slot -> {
+        }));
+        assertTrue(queue.submit(sender, slot -> {
+        }));
+        assertFalse(queue.submit(sender, slot -> {
+        }));
+        assertEquals(1, queue.getRejected());
+        assertEquals(2, queue.getInFlight());
+        // Other senders have their own queues
+        assertTrue(queue.submit(TestServer.sender("other"), slot -> {
+        }));
+    }
+
+    @Test
+    void rejectsCommandsBeyondMaxInFlight() {
+        CommandQueue queue = new CommandQueue();
+        queue.setMaxInFlight(2);
+        List<CommandQueue.Slot> slots = new ArrayList<>();
+        assertTrue(queue.submit(TestServer.sender("first"), slots::add));
+        assertTrue(queue.submit(TestServer.sender("second"), slots::add));
+        assertFalse(queue.submit(TestServer.sender("third"), slots::add));
+        assertEquals(1, queue.getRejected());
+        slots.get(0).release();
+        assertTrue(queue.submit(TestServer.sender("third"), slots::add));
+    }
+
+    @Test
+    void heldExecutionKeepsTheSlot() {
+        CommandQueue queue = new CommandQueue();
+        CommandSender sender = TestServer.sender("sender");
+        CompletableFuture<Void> execution = new CompletableFuture<>();
+        List<String> started = new ArrayList<>();
+        queue.submit(sender, slot -> {
+            slot.hold(execution);
+            // The result is handled, i.E: it timed out, while the execution is still running
+            slot.release();
+        });
+        queue.submit(sender, slot -> started.add("next"));
+        assertEquals(List.of(), started);
+        assertEquals(2, queue.getInFlight());
+        execution.complete(null);
+        assertEquals(List.of("next"), started);
+    }
+}
@@ -0,0 +1,66 @@
+package me.clickism.subcommandapi.command;
+
+import me.clickism.subcommandapi.TestServer;
+import me.clickism.subcommandapi.argument.Argument;
+import me.clickism.subcommandapi.argument.StringArgument;
+import org.bukkit.command.CommandSender;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CompletionSessionsTest {
+    private static final List<String> WARPS = List.of("spawn", "spleef", "shop", "pvp-spawn");
+
+    private final CompletionSessions sessions = new CompletionSessions();
+    private final CommandSender sender = TestServer.sender("sender");
+    private final Argument<String> argument = new StringArgument("warp", true);
+
+    @Test
+    void prefixCompletionIsNarrowed() {
+        sessions.update(sender, argument, "sp", false, 0, List.of("spawn", "spleef"), true);
+        assertEquals(List.of("spawn"), sessions.narrow(sender, argument, "SPA", false, 0));
+        // Narrowed again from the narrowed completion
+        assertEquals(List.of("spawn"), sessions.narrow(sender, argument, "spaw", false, 0));
+        assertEquals(2, sessions.getNarrowed());
+    }
+
+    @Test
+    void emptyPrefixNarrowingFallsBack() {
+        // Candidates that only contain the token as a subsequence were not part of the prefix completion
+        sessions.update(sender, argument, "sp", false, 0, List.of("spawn", "spleef"), true);
+        assertNull(sessions.narrow(sender, argument, "spn", false, 0));
+    }
+
+    @Test
+    void subsequenceCompletionIsNarrowed() {
+        // None of the candidates start with the token
+        sessions.update(sender, argument, "pa", false, 0, List.of("pvp-spawn", "spawn", "spleef-area"), true);
+        assertEquals(List.of("pvp-spawn", "spawn"), sessions.narrow(sender, argument, "paw", false, 0));
+        assertEquals(List.of(), sessions.narrow(sender, argument, "pawx", false, 0));
+    }
+
+    @Test
+    void onlyExtendedTokensOfTheSameSessionAreNarrowed() {
+        sessions.update(sender, argument, "sp", false, 0, WARPS.subList(0, 2), true);
+        assertNull(sessions.narrow(sender, argument, "s", false, 0));
+        assertNull(sessions.narrow(sender, argument, "sh", false, 0));
+        assertNull(sessions.narrow(sender, new StringArgument("warp", true), "spa", false, 0));
+        assertNull(sessions.narrow(sender, argument, "spa", true, 0));
+        assertNull(sessions.narrow(sender, argument, "spa", false, 1));
+        assertNull(sessions.narrow(TestServer.sender("other"), argument, "spa", false, 0));
+    }
+
+    @Test
+    void idleSessionsAreDiscarded() throws InterruptedException {
+        sessions.setIdleTimeout(1, TimeUnit.MILLISECONDS);
+        sessions.update(sender, argument, "sp", false, 0, WARPS.subList(0, 2), true);
+        Thread.sleep(5);
+        assertNull(sessions.narrow(sender, argument, "spa", false, 0));
+        sessions.removeIdle();
+        assertEquals(0, sessions.size());
+    }
+}
@@ -0,0 +1,87 @@
+package me.clickism.subcommandapi.command;
+
+import me.clickism.subcommandapi.TestServer;
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JobSchedulerTest {
+    private static final long STEP_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Plugin plugin = TestServer.plugin("plugin", () -> true);
+    private final CommandSender sender = TestServer.sender("sender");
+
+    @Test
+    void fanOutsShareTheBudgetOfATick() {
+        TestServer.install();
+        JobScheduler scheduler = new JobScheduler();
+        scheduler.setBudget(5, TimeUnit.MILLISECONDS);
+        AtomicInteger processed = new AtomicInteger();
+        List<CompletableFuture<CommandResult>> futures = List.of(
+                startFanOut(scheduler, processed),
+                startFanOut(scheduler, processed));
+        assertEquals(2, scheduler.getRunning());
+        while (scheduler.getRunning() > 0) {
+            processed.set(0);
+            TestServer.tick();
+            // Each step takes at least a millisecond, each fan-out may overrun its share by a step
+            assertTrue(processed.get() <= 5 + 2, "Processed " + processed.get() + " targets in a tick");
+        }
+        for (CompletableFuture<CommandResult> future : futures) {
+            assertEquals("Done for 40/40 targets.", future.join().getMessage());
+        }
+    }
+
+    @Test
+    void fanOutsAreCancelledLikeJobs() {
+        TestServer.install();
+        JobScheduler scheduler = new JobScheduler();
+        CompletableFuture<CommandResult> future = startFanOut(scheduler, new AtomicInteger());
+        assertEquals(1, scheduler.cancel(sender));
+        assertEquals("This command was cancelled.", future.join().getMessage());
+        // Fan-outs do not count towards the jobs of the server
+        assertEquals(0, JobScheduler.getServerRunning());
+    }
+
+    @Test
+    void jobsBeyondTheServerBoundAreRejected() {
+        TestServer.install();
+        JobScheduler first = new JobScheduler();
+        JobScheduler second = new JobScheduler();
+        for (int i = 0; i < JobScheduler.getMaxJobs(); i++) {
+            assertNotNull((i % 2 == 0 ? first : second).submit(plugin, sender, () -> true, progress -> {
+            }));
+        }
+        assertNull(second.submit(plugin, sender, () -> true, progress -> {
+        }));
+        assertEquals(1, second.getRejected());
+        first.cancelAll();
+        second.cancelAll();
+        assertEquals(0, JobScheduler.getServerRunning());
+    }
+
+    private CompletableFuture<CommandResult> startFanOut(JobScheduler scheduler, AtomicInteger processed) {
+        return FanOut.of(Collections.nCopies(40, "target"), target -> {
+                    long start = System.nanoTime();
+                    while (System.nanoTime() - start < STEP_NANOS) {
+                        Thread.onSpinWait();
+                    }
+                    processed.incrementAndGet();
+                    return null;
+                })
+                .budget(5, TimeUnit.MILLISECONDS)
+                .start(scheduler, plugin, sender, progress -> {
+                });
+    }
+}
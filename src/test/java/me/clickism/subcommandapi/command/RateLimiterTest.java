@@ -0,0 +1,88 @@
+package me.clickism.subcommandapi.command;
+
+import me.clickism.subcommandapi.TestServer;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Player player = TestServer.player("player", () -> true);
+
+    private static RateLimiter enabled(double permitsPerSecond, int burst) {
+        RateLimiter limiter = new RateLimiter(permitsPerSecond, burst);
+        limiter.setEnabled(true);
+        return limiter;
+    }
+
+    @Test
+    void burstIsAllowedAtOnce() {
+        RateLimiter limiter = enabled(1, 3);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire(player));
+        }
+        long wait = limiter.tryAcquire(player);
+        // The first permit of the burst is paid back after one interval
+        assertTrue(wait > 0 && wait <= SECOND, "Waits " + wait + "ns");
+        assertTrue(wait > SECOND / 2, "Waits " + wait + "ns");
+        assertEquals(3, limiter.getAllowed());
+        assertEquals(1, limiter.getRejected());
+    }
+
+    @Test
+    void rejectedRequestsDoNotConsumePermits() {
+        RateLimiter limiter = enabled(1, 1);
+        assertEquals(0, limiter.tryAcquire(player));
+        long first = limiter.tryAcquire(player);
+        long second = limiter.tryAcquire(player);
+        // Both wait for the same permit, a rejection does not push it back
+        assertTrue(second <= first, first + "ns, then " + second + "ns");
+        assertTrue(second > SECOND / 2, "Waits " + second + "ns");
+    }
+
+    @Test
+    void permitsRefillAtTheRate() throws InterruptedException {
+        RateLimiter limiter = enabled(100, 1);
+        assertEquals(0, limiter.tryAcquire(player));
+        assertTrue(limiter.tryAcquire(player) > 0);
+        Thread.sleep(20);
+        assertEquals(0, limiter.tryAcquire(player));
+    }
+
+    @Test
+    void playersHaveTheirOwnBuckets() {
+        RateLimiter limiter = enabled(1, 1);
+        assertEquals(0, limiter.tryAcquire(player));
+        assertEquals(0, limiter.tryAcquire(TestServer.player("other", () -> true)));
+        assertTrue(limiter.tryAcquire(player) > 0);
+        limiter.remove(player);
+        assertEquals(0, limiter.tryAcquire(player));
+    }
+
+    @Test
+    void onlyEnabledLimitersLimitPlayers() {
+        RateLimiter limiter = new RateLimiter(1, 1);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire(player));
+        }
+        limiter.setEnabled(true);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire(TestServer.sender("console")));
+        }
+        assertEquals(0, limiter.getAllowed());
+    }
+
+    @Test
+    void rateMustBePositive() {
+        RateLimiter limiter = new RateLimiter(1, 1);
+        assertThrows(IllegalArgumentException.class, () -> limiter.setRate(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> limiter.setRate(Double.NaN, 1));
+        assertThrows(IllegalArgumentException.class, () -> limiter.setRate(1, 0));
+    }
+}
@@ -0,0 +1,103 @@
+package me.clickism.subcommandapi.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ConcurrentNamedCollectionTest {
+    private static final int READERS = 4;
+    private static final int WRITES = 20_000;
+
+    private static Named named(String name) {
+        return () -> name;
+    }
+
+    @Test
+    void snapshotIncludesCompletedWrites() throws InterruptedException {
+        ConcurrentNamedCollection<Named> collection = new ConcurrentNamedCollection<>();
+        AtomicInteger added = new AtomicInteger();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        List<Thread> threads = new ArrayList<>();
+        threads.add(new Thread(() -> {
+            for (int i = 0; i < WRITES; i++) {
+                collection.add(named("object" + i));
+                added.set(i + 1);
+            }
+            done.set(true);
+        }));
+        threads.add(new Thread(() -> {
+            // Keeps a write in progress as often as possible
+            while (!done.get()) {
+                collection.sort(Comparator.comparing(Named::getName));
+            }
+        }));
+        for (int i = 0; i < READERS; i++) {
+            threads.add(new Thread(() -> {
+                while (!done.get() && failure.get() == null) {
+                    int count = added.get();
+                    List<Named> snapshot = collection.snapshot();
+                    if (snapshot.size() < count) {
+                        failure.compareAndSet(null, "Snapshot of " + snapshot.size()
+                                                    + " objects misses completed writes: " + count);
+                    }
+                }
+            }));
+        }
+        runAll(threads);
+        assertNull(failure.get());
+    }
+
+    @Test
+    void snapshotIsNeverPartiallySorted() throws InterruptedException {
+        ConcurrentNamedCollection<Named> collection = new ConcurrentNamedCollection<>();
+        for (int i = 0; i < 1000; i++) {
+            collection.add(named(String.format("object%04d", i)));
+        }
+        Comparator<Named> ascending = Comparator.comparing(Named::getName);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        List<Thread> threads = new ArrayList<>();
+        threads.add(new Thread(() -> {
+            for (int i = 0; i < WRITES / 100; i++) {
+                collection.sort(i % 2 == 0 ? ascending.reversed() : ascending);
+            }
+            done.set(true);
+        }));
+        for (int i = 0; i < READERS; i++) {
+            threads.add(new Thread(() -> {
+                while (!done.get() && failure.get() == null) {
+                    List<Named> snapshot = collection.snapshot();
+                    if (!isSorted(snapshot, ascending) && !isSorted(snapshot, ascending.reversed())) {
+                        failure.compareAndSet(null, "Snapshot is partially sorted");
+                    }
+                }
+            }));
+        }
+        runAll(threads);
+        assertNull(failure.get());
+    }
+
+    private static boolean isSorted(List<Named> list, Comparator<Named> comparator) {
+        for (int i = 1; i < list.size(); i++) {
+            if (comparator.compare(list.get(i - 1), list.get(i)) > 0) return false;
+        }
+        return true;
+    }
+
+    private static void runAll(List<Thread> threads) throws InterruptedException {
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package me.clickism.subcommandapi.util;
+
+import me.clickism.subcommandapi.TestServer;
+import org.bukkit.OfflinePlayer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class OfflinePlayerIndexTest {
+    private static final int COMPACTED = 1100;
+
+    private static UUID uuidOf(String name) {
+        return UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static OfflinePlayerIndex index(String... names) {
+        OfflinePlayer[] players = new OfflinePlayer[names.length];
+        for (int i = 0; i < names.length; i++) {
+            players[i] = TestServer.player(names[i], () -> false);
+        }
+        return OfflinePlayerIndex.of(players);
+    }
+
+    @Test
+    void namesAreSortedIgnoringCase() {
+        OfflinePlayerIndex index = index("dave", "Alice", "carol");
+        assertEquals(List.of("Alice", "carol", "dave"), index.getNames("", 10));
+        assertEquals(List.of("carol"), index.getNames("C", 10));
+        assertEquals(List.of("Alice", "carol"), index.getNames("", 2));
+        assertEquals(uuidOf("carol"), index.getUniqueId("CAROL"));
+        assertNull(index.getUniqueId("car"));
+    }
+
+    @Test
+    void recentJoinsAreMergedIntoNames() {
+        OfflinePlayerIndex index = index("dave", "Alice", "carol");
+        index.add("Bob", uuidOf("Bob"));
+        index.add("Carl", uuidOf("Carl"));
+        assertEquals(List.of("Alice", "Bob", "Carl", "carol", "dave"), index.getNames("", 10));
+        assertEquals(List.of("Carl", "carol"), index.getNames("ca", 10));
+        assertEquals(List.of("Alice", "Bob", "Carl"), index.getNames("", 3));
+        assertEquals(uuidOf("Bob"), index.getUniqueId("bob"));
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    void recentJoinsTakeOverNames() {
+        OfflinePlayerIndex index = index("dave", "Alice");
+        UUID newDave = UUID.randomUUID();
+        index.add("Dave", newDave);
+        assertEquals(List.of("Alice", "Dave"), index.getNames("", 10));
+        assertEquals(newDave, index.getUniqueId("dave"));
+    }
+
+    @Test
+    void compactionKeepsTheMergedNames() {
+        OfflinePlayerIndex index = index("dave", "Alice", "carol");
+        UUID newDave = UUID.randomUUID();
+        index.add("Dave", newDave);
+        // Alice was renamed
+        index.add("Alicia", uuidOf("Alice"));
+        for (int i = 0; i < COMPACTED; i++) {
+            String name = String.format("player%04d", i);
+            index.add(name, uuidOf(name));
+        }
+        assertEquals(3 + COMPACTED, index.size());
+        assertEquals(List.of("Alicia", "carol", "Dave"), index.getNames("", 3));
+        assertEquals(List.of("player0000", "player0001"), index.getNames("PLAYER", 2));
+        assertNull(index.getUniqueId("alice"));
+        assertEquals(uuidOf("Alice"), index.getUniqueId("alicia"));
+        assertEquals(newDave, index.getUniqueId("DAVE"));
+        assertEquals(uuidOf("player1099"), index.getUniqueId("player1099"));
+    }
+}